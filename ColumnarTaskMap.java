@@ -0,0 +1,569 @@
+package taskmanager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+// ColumnarTaskMap Class
+// Task store that keeps tasks as columns of primitives, not as Task objects. Each task lives in a
+// slot: priority and epoch-day deadline in int[]s, status and assignee as int codes into per-column
+// dictionaries, and the name as UTF-8 bytes in a paged arena. The id strings are kept, because
+// every index keys on them anyway. get() builds a Task from the slot, so callers see the usual
+// immutable Task; a store of 10M tasks holds no Task objects at all.
+// Reads share a lock and writes take it exclusively, so get() is safe alongside a writer.
+class ColumnarTaskMap extends CustomHashMap<String, Task> {
+    private final Columns columns;
+
+    public ColumnarTaskMap() {
+        this(new Columns());
+    }
+
+    private ColumnarTaskMap(Columns columns) {
+        super(columns);
+        this.columns = columns;
+    }
+
+    @Override
+    public Collection<Task> snapshotValues() {
+        return columns.snapshot();
+    }
+
+    @Override
+    protected Collection<Map.Entry<String, Task>> entrySnapshot() {
+        List<Map.Entry<String, Task>> entries = new ArrayList<>(size());
+        for (Task task : columns.snapshot()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(task.getId(), task));
+        }
+        return entries;
+    }
+
+    // Heap held by the columns, arena and dictionaries, not counting the id strings.
+    public long columnBytes() {
+        return columns.columnBytes();
+    }
+
+    private static final class Columns extends AbstractMap<String, Task> {
+        private static final int NO_DEADLINE = Integer.MIN_VALUE;
+        // The deadline is not yyyy-MM-dd; its text is in odd deadlines.
+        private static final int TEXT_DEADLINE = Integer.MIN_VALUE + 1;
+        private static final int NULL_NAME = -1;
+        private static final int LONG_NAME = -2;
+        private static final int PAGE_BITS = 20;
+        private static final int PAGE_SIZE = 1 << PAGE_BITS;
+        // Longer names go to a side map instead of the arena.
+        private static final int MAX_ARENA_NAME = 4096;
+        private static final int MAX_DEADLINE_TEXTS = 1 << 16;
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        // Slot columns; a free slot has a null id.
+        private String[] ids = new String[1024];
+        private int[] priorities = new int[1024];
+        private int[] deadlines = new int[1024];
+        private int[] statuses = new int[1024];
+        private int[] assignees = new int[1024];
+        private int[] nameOffsets = new int[1024];
+        private int[] nameLengths = new int[1024];
+        private String[] reminders = new String[1024];
+        private final Map<Integer, String> oddDeadlines = new HashMap<>();
+        private final Map<Integer, String> longNames = new HashMap<>();
+        private final Dictionary statusCodes = new Dictionary();
+        private final Dictionary assigneeCodes = new Dictionary();
+        // Formatted deadlines by epoch day; a store spans few distinct days, and formatting a
+        // LocalDate on every get() would cost more than the rest of the read.
+        private final Map<Integer, String> deadlineTexts = new ConcurrentHashMap<>();
+
+        // Open addressing on id hash -> slot + 1, with linear probing and backward-shift delete.
+        private int[] table = new int[2048];
+        private int[] freeSlots = new int[64];
+        private int freeCount;
+        private int slotCount;
+        private int size;
+
+        // Name arena: fixed-size pages; an arena offset is page << PAGE_BITS | position.
+        private byte[][] pages = new byte[1][];
+        private int arenaEnd;
+        private long garbageBytes;
+
+        @Override
+        public Task get(final Object key) {
+            lock.readLock().lock();
+            try {
+                int slot = find(key);
+                return slot < 0 ? null : view(slot);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            lock.readLock().lock();
+            try {
+                return find(key) >= 0;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            lock.readLock().lock();
+            try {
+                return size;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Task put(final String key, final Task task) {
+            lock.writeLock().lock();
+            try {
+                int slot = find(key);
+                Task previous = null;
+                if (slot >= 0) {
+                    previous = view(slot);
+                    release(slot);
+                } else {
+                    slot = allocate(key);
+                }
+                store(slot, task);
+                return previous;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Task remove(final Object key) {
+            lock.writeLock().lock();
+            try {
+                int slot = find(key);
+                if (slot < 0) {
+                    return null;
+                }
+                Task previous = view(slot);
+                release(slot);
+                unlink((String) key);
+                ids[slot] = null;
+                if (freeCount == freeSlots.length) {
+                    freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+                }
+                freeSlots[freeCount++] = slot;
+                size--;
+                return previous;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Tasks are rebuilt on every get, so "still the expected task" means equal fields,
+        // not the same object.
+        @Override
+        public boolean replace(final String key, final Task expected, final Task replacement) {
+            lock.writeLock().lock();
+            try {
+                int slot = find(key);
+                if (slot < 0 || !view(slot).hasSameFields(expected)) {
+                    return false;
+                }
+                release(slot);
+                store(slot, replacement);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Task computeIfPresent(final String key, final BiFunction<? super String, ? super Task, ? extends Task> remapping) {
+            lock.writeLock().lock();
+            try {
+                int slot = find(key);
+                if (slot < 0) {
+                    return null;
+                }
+                Task updated = remapping.apply(key, view(slot));
+                if (updated == null) {
+                    remove(key);
+                } else {
+                    release(slot);
+                    store(slot, updated);
+                }
+                return updated;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void clear() {
+            lock.writeLock().lock();
+            try {
+                Arrays.fill(ids, null);
+                Arrays.fill(reminders, null);
+                Arrays.fill(table, 0);
+                oddDeadlines.clear();
+                longNames.clear();
+                statusCodes.clear();
+                assigneeCodes.clear();
+                pages = new byte[1][];
+                arenaEnd = 0;
+                garbageBytes = 0;
+                freeCount = 0;
+                slotCount = 0;
+                size = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Like HashMap's views, iteration is not guarded. snapshot() iterates under this store's lock
+        // and TaskManager walks getAllValues() only under its store lock; other callers use snapshotValues().
+        @Override
+        public Set<Entry<String, Task>> entrySet() {
+            return new AbstractSet<Entry<String, Task>>() {
+                @Override
+                public Iterator<Entry<String, Task>> iterator() {
+                    Iterator<Task> tasks = values().iterator();
+                    return new Iterator<Entry<String, Task>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return tasks.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Task> next() {
+                            Task task = tasks.next();
+                            return new SimpleImmutableEntry<>(task.getId(), task);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return Columns.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Collection<Task> values() {
+            return new AbstractCollection<Task>() {
+                @Override
+                public Iterator<Task> iterator() {
+                    return new Iterator<Task>() {
+                        private int slot = advance(0);
+
+                        private int advance(int from) {
+                            while (from < slotCount && ids[from] == null) {
+                                from++;
+                            }
+                            return from;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return slot < slotCount;
+                        }
+
+                        @Override
+                        public Task next() {
+                            if (slot >= slotCount) {
+                                throw new NoSuchElementException();
+                            }
+                            Task task = view(slot);
+                            slot = advance(slot + 1);
+                            return task;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return Columns.this.size();
+                }
+            };
+        }
+
+        List<Task> snapshot() {
+            lock.readLock().lock();
+            try {
+                return Collections.unmodifiableList(new ArrayList<>(values()));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        long columnBytes() {
+            lock.readLock().lock();
+            try {
+                long bytes = 4L * ids.length                    // id references
+                        + 4L * 7 * priorities.length            // six int columns and the reminder references
+                        + 4L * table.length;
+                for (byte[] page : pages) {
+                    bytes += page == null ? 0 : page.length;
+                }
+                return bytes;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private Task view(final int slot) {
+            return Task.builder(ids[slot])
+                    .name(name(slot))
+                    .deadline(deadline(slot))
+                    .status(statusCodes.value(statuses[slot]))
+                    .priority(priorities[slot])
+                    .assignedTo(assigneeCodes.value(assignees[slot]))
+                    .reminder(reminders[slot])
+                    .build();
+        }
+
+        private void store(final int slot, final Task task) {
+            priorities[slot] = task.getPriority();
+            statuses[slot] = statusCodes.code(task.getStatus());
+            assignees[slot] = assigneeCodes.code(task.getAssignedTo());
+            reminders[slot] = task.getReminder();
+            String deadline = task.getDeadline();
+            if (deadline == null) {
+                deadlines[slot] = NO_DEADLINE;
+            } else {
+                long epochDay = DeadlineIndex.epochDayOf(deadline);
+                // Only dates that format back to the same text are packed.
+                if (epochDay != DeadlineIndex.MALFORMED && epochDay > TEXT_DEADLINE && epochDay <= Integer.MAX_VALUE) {
+                    deadlines[slot] = (int) epochDay;
+                } else {
+                    deadlines[slot] = TEXT_DEADLINE;
+                    oddDeadlines.put(slot, deadline);
+                }
+            }
+            storeName(slot, task.getName());
+        }
+
+        // Drops what a slot refers to outside its columns, before it is overwritten or freed.
+        private void release(final int slot) {
+            if (deadlines[slot] == TEXT_DEADLINE) {
+                oddDeadlines.remove(slot);
+            }
+            if (nameLengths[slot] == LONG_NAME) {
+                longNames.remove(slot);
+            } else if (nameLengths[slot] > 0) {
+                garbageBytes += nameLengths[slot];
+            }
+            reminders[slot] = null;
+        }
+
+        private String deadline(final int slot) {
+            int day = deadlines[slot];
+            if (day == NO_DEADLINE) {
+                return null;
+            }
+            if (day == TEXT_DEADLINE) {
+                return oddDeadlines.get(slot);
+            }
+            String text = deadlineTexts.get(day);
+            if (text == null) {
+                text = LocalDate.ofEpochDay(day).toString();
+                if (deadlineTexts.size() < MAX_DEADLINE_TEXTS) {
+                    deadlineTexts.put(day, text);
+                }
+            }
+            return text;
+        }
+
+        private String name(final int slot) {
+            int length = nameLengths[slot];
+            if (length == NULL_NAME) {
+                return null;
+            }
+            if (length == LONG_NAME) {
+                return longNames.get(slot);
+            }
+            int offset = nameOffsets[slot];
+            return new String(pages[offset >>> PAGE_BITS], offset & (PAGE_SIZE - 1), length, StandardCharsets.UTF_8);
+        }
+
+        private void storeName(final int slot, final String name) {
+            if (name == null) {
+                nameLengths[slot] = NULL_NAME;
+                return;
+            }
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_ARENA_NAME) {
+                nameLengths[slot] = LONG_NAME;
+                longNames.put(slot, name);
+                return;
+            }
+            if (garbageBytes > PAGE_SIZE && garbageBytes > arenaEnd / 2) {
+                compactArena();
+            }
+            nameOffsets[slot] = append(bytes);
+            nameLengths[slot] = bytes.length;
+        }
+
+        // A name never straddles two pages.
+        private int append(final byte[] bytes) {
+            int page = arenaEnd >>> PAGE_BITS;
+            int position = arenaEnd & (PAGE_SIZE - 1);
+            if (position + bytes.length > PAGE_SIZE) {
+                page++;
+                position = 0;
+            }
+            if (page == pages.length) {
+                pages = Arrays.copyOf(pages, page * 2);
+            }
+            if (pages[page] == null) {
+                pages[page] = new byte[PAGE_SIZE];
+            }
+            System.arraycopy(bytes, 0, pages[page], position, bytes.length);
+            int offset = (page << PAGE_BITS) | position;
+            arenaEnd = offset + bytes.length;
+            return offset;
+        }
+
+        // Renamed and removed tasks leave dead bytes behind; once they make up half the arena,
+        // the live names are copied into fresh pages.
+        private void compactArena() {
+            byte[][] old = pages;
+            pages = new byte[1][];
+            arenaEnd = 0;
+            garbageBytes = 0;
+            for (int slot = 0; slot < slotCount; slot++) {
+                if (ids[slot] != null && nameLengths[slot] > 0) {
+                    int offset = nameOffsets[slot];
+                    byte[] bytes = Arrays.copyOfRange(old[offset >>> PAGE_BITS], offset & (PAGE_SIZE - 1),
+                            (offset & (PAGE_SIZE - 1)) + nameLengths[slot]);
+                    nameOffsets[slot] = append(bytes);
+                }
+            }
+        }
+
+        private int allocate(final String id) {
+            int slot;
+            if (freeCount > 0) {
+                slot = freeSlots[--freeCount];
+            } else {
+                slot = slotCount++;
+                if (slot == ids.length) {
+                    growColumns(slot * 2);
+                }
+            }
+            ids[slot] = id;
+            size++;
+            if (size * 2 > table.length) {
+                rehash(table.length * 2);
+            }
+            link(id, slot);
+            return slot;
+        }
+
+        private void growColumns(final int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            assignees = Arrays.copyOf(assignees, capacity);
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+            reminders = Arrays.copyOf(reminders, capacity);
+        }
+
+        private static int hash(final Object key) {
+            int h = key.hashCode() * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private int find(final Object key) {
+            if (key == null) {
+                return -1;
+            }
+            int mask = table.length - 1;
+            for (int i = hash(key) & mask; table[i] != 0; i = (i + 1) & mask) {
+                int slot = table[i] - 1;
+                if (ids[slot].equals(key)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private void link(final String id, final int slot) {
+            int mask = table.length - 1;
+            int i = hash(id) & mask;
+            while (table[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            table[i] = slot + 1;
+        }
+
+        // Backward-shift deletion keeps probe chains unbroken without tombstones.
+        private void unlink(final String id) {
+            int mask = table.length - 1;
+            int i = hash(id) & mask;
+            while (!ids[table[i] - 1].equals(id)) {
+                i = (i + 1) & mask;
+            }
+            int hole = i;
+            for (int j = (hole + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+                int home = hash(ids[table[j] - 1]) & mask;
+                // Move the entry back if its home is not in the cyclic range (hole, j].
+                if (hole <= j ? (home <= hole || home > j) : (home <= hole && home > j)) {
+                    table[hole] = table[j];
+                    hole = j;
+                }
+            }
+            table[hole] = 0;
+        }
+
+        private void rehash(final int capacity) {
+            int[] old = table;
+            table = new int[capacity];
+            for (int entry : old) {
+                if (entry != 0) {
+                    link(ids[entry - 1], entry - 1);
+                }
+            }
+        }
+    }
+
+    // Value <-> int code, with 0 standing for null. Codes are never reused, so the few distinct
+    // statuses and usernames cost one string each however many tasks carry them.
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] values = new String[16];
+        private int next = 1;
+
+        int code(final String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            if (next == values.length) {
+                values = Arrays.copyOf(values, next * 2);
+            }
+            values[next] = value;
+            codes.put(value, next);
+            return next++;
+        }
+
+        String value(final int code) {
+            return values[code];
+        }
+
+        void clear() {
+            codes.clear();
+            Arrays.fill(values, null);
+            next = 1;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package taskmanager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+// ConcurrentCustomHashMap Class
+// Thread-safe CustomHashMap backed by a ConcurrentHashMap, so reads never lock and writes to
+// different keys proceed in parallel. update() is an atomic compare-and-update per key.
+// Writers share the read side of a snapshot lock; snapshotValues() takes the write side briefly,
+// which gives a point-in-time copy that no concurrent mutation is half-way through.
+class ConcurrentCustomHashMap<K, V> extends CustomHashMap<K, V> {
+    private final ReadWriteLock snapshotLock;
+
+    public ConcurrentCustomHashMap() {
+        super(new ConcurrentHashMap<>());
+        snapshotLock = new ReentrantReadWriteLock();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        snapshotLock.readLock().lock();
+        try {
+            return super.put(key, value);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        snapshotLock.readLock().lock();
+        try {
+            return super.remove(key);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public V update(K key, UnaryOperator<V> updater) {
+        snapshotLock.readLock().lock();
+        try {
+            return super.update(key, updater);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V expected, V replacement) {
+        snapshotLock.readLock().lock();
+        try {
+            return super.replace(key, expected, replacement);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Collection<V> snapshotValues() {
+        snapshotLock.writeLock().lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(getAllValues()));
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected Collection<Map.Entry<K, V>> entrySnapshot() {
+        snapshotLock.writeLock().lock();
+        try {
+            List<Map.Entry<K, V>> entries = new ArrayList<>(size());
+            for (Map.Entry<K, V> entry : super.entrySnapshot()) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(entry));
+            }
+            return entries;
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package taskmanager;
+
+import java.io.IOException;
+
+// CsvCodec Interface
+// Typed mapping between a value and one CSV record, used by CustomHashMap's CSV import/export.
+interface CsvCodec<V> {
+    String[] header();
+
+    void encode(V value, CsvWriter writer) throws IOException;
+
+    // Throws IllegalArgumentException when the record cannot be turned into a value.
+    V decode(CsvReader record);
+}
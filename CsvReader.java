@@ -0,0 +1,152 @@
+package taskmanager;
+
+import java.io.*;
+
+// CsvReader Class
+// Streaming RFC 4180 style record parser over a Reader with its own large buffer. Fields are
+// parsed with a single reused StringBuilder; quoted fields may contain commas, quotes and newlines.
+// An empty unquoted field reads back as null, a quoted "" as the empty string.
+class CsvReader implements Closeable {
+    private static final int EOF = -1;
+
+    private final Reader in;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+    private final StringBuilder field;
+    private String[] fields;
+    private int fieldCount;
+    private long line;
+    private long recordLine;
+    private boolean malformed;
+
+    public CsvReader(Reader in, int bufferSize) {
+        this.in = in;
+        this.buffer = new char[bufferSize];
+        this.position = 0;
+        this.limit = 0;
+        this.field = new StringBuilder(64);
+        this.fields = new String[8];
+        this.fieldCount = 0;
+        this.line = 1;
+    }
+
+    // Advances to the next non-blank record; returns false at end of input.
+    public boolean next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == EOF) {
+                return false;
+            }
+            if (c == '\n') {
+                line++;
+                continue;
+            }
+            if (c == '\r') {
+                continue;
+            }
+            parseRecord(c);
+            return true;
+        }
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    public String field(final int index) {
+        return fields[index];
+    }
+
+    // Line on which the current record started, for error reports.
+    public long lineNumber() {
+        return recordLine;
+    }
+
+    // True when the current record ended inside an unterminated quoted field.
+    public boolean isMalformed() {
+        return malformed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void parseRecord(int c) throws IOException {
+        fieldCount = 0;
+        malformed = false;
+        recordLine = line;
+        while (true) {
+            field.setLength(0);
+            boolean quoted = false;
+            if (c == '"') {
+                quoted = true;
+                c = readQuoted();
+            }
+            while (c != ',' && c != '\n' && c != '\r' && c != EOF) {
+                field.append((char) c);
+                c = read();
+            }
+            addField(quoted || field.length() > 0 ? field.toString() : null);
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r') {
+                c = read();
+                if (c != '\n' && c != EOF) {
+                    // Lone carriage return ends the record; keep the character for the next one.
+                    position--;
+                }
+            }
+            if (c == '\n') {
+                line++;
+            }
+            return;
+        }
+    }
+
+    // Consumes a quoted section and returns the first character after its closing quote.
+    private int readQuoted() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == EOF) {
+                malformed = true;
+                return EOF;
+            }
+            if (c == '"') {
+                int next = read();
+                if (next != '"') {
+                    return next;
+                }
+            } else if (c == '\n') {
+                line++;
+            }
+            field.append((char) c);
+        }
+    }
+
+    private void addField(final String value) {
+        if (fieldCount == fields.length) {
+            String[] grown = new String[fields.length * 2];
+            System.arraycopy(fields, 0, grown, 0, fields.length);
+            fields = grown;
+        }
+        fields[fieldCount++] = value;
+    }
+
+    private int read() throws IOException {
+        if (position < limit) {
+            return buffer[position++];
+        }
+        limit = in.read(buffer, 0, buffer.length);
+        if (limit <= 0) {
+            limit = 0;
+            position = 0;
+            return EOF;
+        }
+        position = 1;
+        return buffer[0];
+    }
+}
@@ -0,0 +1,100 @@
+package taskmanager;
+
+import java.io.*;
+
+// CsvWriter Class
+// Streams RFC 4180 style records to a Writer without regex, String.format or per-row buffers.
+// A null field is written empty; an empty string is written as "" so the two survive a round trip.
+class CsvWriter implements Closeable, Flushable {
+    private final Writer out;
+    private final char[] digits;
+    private boolean firstField;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+        this.digits = new char[11];
+        this.firstField = true;
+    }
+
+    public void writeField(final String value) throws IOException {
+        separate();
+        if (value == null) {
+            return;
+        }
+        if (!needsQuoting(value)) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                out.write(value, start, i - start + 1);
+                out.write('"');
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    public void writeField(final int value) throws IOException {
+        separate();
+        if (value == Integer.MIN_VALUE) {
+            out.write("-2147483648");
+            return;
+        }
+        int remaining = Math.abs(value);
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            digits[--pos] = '-';
+        }
+        out.write(digits, pos, digits.length - pos);
+    }
+
+    public void writeRecord(final String... fields) throws IOException {
+        for (String field : fields) {
+            writeField(field);
+        }
+        endRecord();
+    }
+
+    public void endRecord() throws IOException {
+        out.write('\n');
+        firstField = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void separate() throws IOException {
+        if (!firstField) {
+            out.write(',');
+        }
+        firstField = false;
+    }
+
+    private static boolean needsQuoting(final String value) {
+        if (value.isEmpty()) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,200 @@
+package taskmanager;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.*;
+
+// DeadlineIndex Class
+// Task ids ordered by deadline, keyed by the parsed epoch-day so range and top-N queries
+// cost O(log n + k). Deadlines that are not yyyy-MM-dd are kept apart and flagged.
+// Ids on the same deadline are sorted, so the whole order is total and paging is stable.
+class DeadlineIndex {
+    public static final long MALFORMED = Long.MIN_VALUE;
+
+    private final NavigableMap<Long, NavigableSet<String>> byEpochDay;
+    private final NavigableMap<String, NavigableSet<String>> malformed;
+    private int malformedCount;
+
+    public DeadlineIndex() {
+        byEpochDay = new TreeMap<>();
+        malformed = new TreeMap<>();
+        malformedCount = 0;
+    }
+
+    // Hand-rolled yyyy-MM-dd parse; LocalDate.parse goes through a DateTimeFormatter and
+    // dominates index rebuilds after a bulk import.
+    public static long epochDayOf(final String deadline) {
+        if (deadline == null || deadline.length() != 10 || deadline.charAt(4) != '-' || deadline.charAt(7) != '-') {
+            return MALFORMED;
+        }
+        int year = digits(deadline, 0, 4);
+        int month = digits(deadline, 5, 7);
+        int day = digits(deadline, 8, 10);
+        if (year < 0 || month < 0 || day < 0) {
+            return MALFORMED;
+        }
+        try {
+            return LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            return MALFORMED;
+        }
+    }
+
+    private static int digits(final String text, final int from, final int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    // Returns false when the deadline could not be parsed and the task was flagged instead.
+    public boolean add(final String id, final String deadline) {
+        long epochDay = epochDayOf(deadline);
+        if (epochDay == MALFORMED) {
+            if (malformed.computeIfAbsent(String.valueOf(deadline), k -> new TreeSet<>()).add(id)) {
+                malformedCount++;
+            }
+            return false;
+        }
+        byEpochDay.computeIfAbsent(epochDay, k -> new TreeSet<>()).add(id);
+        return true;
+    }
+
+    public void remove(final String id, final String deadline) {
+        long epochDay = epochDayOf(deadline);
+        if (epochDay == MALFORMED) {
+            String key = String.valueOf(deadline);
+            Set<String> ids = malformed.get(key);
+            if (ids != null && ids.remove(id)) {
+                malformedCount--;
+                if (ids.isEmpty()) {
+                    malformed.remove(key);
+                }
+            }
+            return;
+        }
+        Set<String> ids = byEpochDay.get(epochDay);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            byEpochDay.remove(epochDay);
+        }
+    }
+
+    public void clear() {
+        byEpochDay.clear();
+        malformed.clear();
+        malformedCount = 0;
+    }
+
+    // Exact lookup; malformed deadlines can still be found by their raw text.
+    public Set<String> idsOn(final String deadline) {
+        long epochDay = epochDayOf(deadline);
+        Set<String> ids = epochDay == MALFORMED ? malformed.get(String.valueOf(deadline)) : byEpochDay.get(epochDay);
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    // Both bounds are inclusive.
+    public List<String> idsBetween(final long fromEpochDay, final long toEpochDay) {
+        List<String> ids = new ArrayList<>();
+        if (fromEpochDay > toEpochDay) {
+            return ids;
+        }
+        for (Set<String> day : byEpochDay.subMap(fromEpochDay, true, toEpochDay, true).values()) {
+            ids.addAll(day);
+        }
+        return ids;
+    }
+
+    public List<String> idsBefore(final long epochDay) {
+        List<String> ids = new ArrayList<>();
+        for (Set<String> day : byEpochDay.headMap(epochDay, false).values()) {
+            ids.addAll(day);
+        }
+        return ids;
+    }
+
+    // Lazily walks ids in deadline order starting at the given day, so callers that stop
+    // after N matches never touch the rest of the index.
+    public Iterator<String> idsFrom(final long epochDay) {
+        final Iterator<NavigableSet<String>> days = byEpochDay.tailMap(epochDay, true).values().iterator();
+        return new Iterator<String>() {
+            private Iterator<String> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && days.hasNext()) {
+                    current = days.next().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    // Every id in deadline order, with malformed deadlines last.
+    public List<String> idsInOrder() {
+        List<String> ids = new ArrayList<>();
+        for (Set<String> day : byEpochDay.values()) {
+            ids.addAll(day);
+        }
+        ids.addAll(malformedIds());
+        return ids;
+    }
+
+    // The page that follows the given task as it was last seen, in idsInOrder() order; pass null
+    // for the first page.
+    public List<String> pageAfter(final Task lastSeen, final int limit) {
+        List<String> ids = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        if (lastSeen == null) {
+            collectAfter(byEpochDay, null, null, ids, limit);
+            collectAfter(malformed, null, null, ids, limit);
+            return ids;
+        }
+        long epochDay = epochDayOf(lastSeen.getDeadline());
+        if (epochDay == MALFORMED) {
+            collectAfter(malformed, String.valueOf(lastSeen.getDeadline()), lastSeen.getId(), ids, limit);
+        } else {
+            collectAfter(byEpochDay, epochDay, lastSeen.getId(), ids, limit);
+            collectAfter(malformed, null, null, ids, limit);
+        }
+        return ids;
+    }
+
+    // Appends ids from the group at key on, skipping that group's ids up to and including id.
+    private static <K> void collectAfter(final NavigableMap<K, NavigableSet<String>> groups, final K key, final String id,
+                                         final List<String> ids, final int limit) {
+        Map<K, NavigableSet<String>> tail = key == null ? groups : groups.tailMap(key, true);
+        for (Map.Entry<K, NavigableSet<String>> group : tail.entrySet()) {
+            Set<String> members = key != null && group.getKey().equals(key) ? group.getValue().tailSet(id, false) : group.getValue();
+            for (String member : members) {
+                if (ids.size() >= limit) {
+                    return;
+                }
+                ids.add(member);
+            }
+        }
+    }
+
+    public List<String> malformedIds() {
+        List<String> ids = new ArrayList<>(malformedCount);
+        for (Set<String> raw : malformed.values()) {
+            ids.addAll(raw);
+        }
+        return ids;
+    }
+
+    public int malformedCount() {
+        return malformedCount;
+    }
+}
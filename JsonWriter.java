@@ -0,0 +1,262 @@
+package taskmanager;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// JsonWriter Class
+// Streaming JSON (RFC 8259) encoder that writes UTF-8 straight into a byte buffer and hands it to
+// the underlying stream whenever it fills, so arbitrarily long arrays are sent without first being
+// built in memory. Commas are inserted automatically; the caller just opens, fills and closes
+// objects and arrays in order.
+class JsonWriter implements Closeable, Flushable {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+    private static final byte[] NULL = "null".getBytes();
+    private static final byte[] TRUE = "true".getBytes();
+    private static final byte[] FALSE = "false".getBytes();
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position;
+    // One flag per open object or array: whether it already holds a member, so the next needs a comma.
+    private boolean[] hasMember;
+    private int depth;
+    private boolean afterName;
+
+    public JsonWriter(OutputStream out) {
+        this(out, 8192);
+    }
+
+    public JsonWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(64, bufferSize)];
+        this.hasMember = new boolean[16];
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    public JsonWriter name(final String name) throws IOException {
+        separate();
+        string(name);
+        write(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(final String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        separate();
+        string(value);
+        return this;
+    }
+
+    public JsonWriter value(final long value) throws IOException {
+        separate();
+        ascii(Long.toString(value));
+        return this;
+    }
+
+    // NaN and the infinities have no JSON form and are written as null.
+    public JsonWriter value(final double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return nullValue();
+        }
+        separate();
+        ascii(Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(final boolean value) throws IOException {
+        separate();
+        write(value ? TRUE : FALSE);
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        separate();
+        write(NULL);
+        return this;
+    }
+
+    // Ends a top-level value with a line feed, for JSON lines output.
+    public JsonWriter newline() throws IOException {
+        if (depth != 0 || afterName) {
+            throw new IllegalStateException("newline() inside a JSON value");
+        }
+        write('\n');
+        return this;
+    }
+
+    // Shorthand for name(name).value(value).
+    public JsonWriter field(final String name, final String value) throws IOException {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(final String name, final long value) throws IOException {
+        return name(name).value(value);
+    }
+
+    public JsonWriter field(final String name, final double value) throws IOException {
+        return name(name).value(value);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            out.close();
+        }
+    }
+
+    private JsonWriter open(final char bracket) throws IOException {
+        separate();
+        write(bracket);
+        if (depth == hasMember.length) {
+            boolean[] grown = new boolean[depth * 2];
+            System.arraycopy(hasMember, 0, grown, 0, depth);
+            hasMember = grown;
+        }
+        hasMember[depth++] = false;
+        return this;
+    }
+
+    private JsonWriter close(final char bracket) throws IOException {
+        if (depth == 0 || afterName) {
+            throw new IllegalStateException("Unbalanced JSON " + bracket);
+        }
+        depth--;
+        write(bracket);
+        return this;
+    }
+
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (hasMember[depth - 1]) {
+                write(',');
+            }
+            hasMember[depth - 1] = true;
+        }
+    }
+
+    private void string(final String value) throws IOException {
+        write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                write('\\');
+                write(c);
+            } else if (c < 0x20) {
+                escapeControl(c);
+            } else if (c < 0x80) {
+                write(c);
+            } else if (c < 0x800) {
+                write(0xC0 | (c >> 6));
+                write(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                write(0xF0 | (codePoint >> 18));
+                write(0x80 | ((codePoint >> 12) & 0x3F));
+                write(0x80 | ((codePoint >> 6) & 0x3F));
+                write(0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // A lone surrogate cannot be encoded as UTF-8, but JSON can still carry it escaped.
+                unicodeEscape(c);
+            } else {
+                write(0xE0 | (c >> 12));
+                write(0x80 | ((c >> 6) & 0x3F));
+                write(0x80 | (c & 0x3F));
+            }
+        }
+        write('"');
+    }
+
+    private void escapeControl(final char c) throws IOException {
+        switch (c) {
+            case '\n':
+                write('\\');
+                write('n');
+                break;
+            case '\r':
+                write('\\');
+                write('r');
+                break;
+            case '\t':
+                write('\\');
+                write('t');
+                break;
+            case '\b':
+                write('\\');
+                write('b');
+                break;
+            case '\f':
+                write('\\');
+                write('f');
+                break;
+            default:
+                unicodeEscape(c);
+        }
+    }
+
+    private void unicodeEscape(final char c) throws IOException {
+        write('\\');
+        write('u');
+        write(HEX[(c >> 12) & 0xF]);
+        write(HEX[(c >> 8) & 0xF]);
+        write(HEX[(c >> 4) & 0xF]);
+        write(HEX[c & 0xF]);
+    }
+
+    private void ascii(final String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            write(text.charAt(i));
+        }
+    }
+
+    private void write(final byte[] bytes) throws IOException {
+        for (byte b : bytes) {
+            write(b);
+        }
+    }
+
+    private void write(final int b) throws IOException {
+        if (position == buffer.length) {
+            drain();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void drain() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
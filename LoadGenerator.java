@@ -0,0 +1,312 @@
+package taskmanager;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// LoadGenerator Class
+// Closed-loop load test for TaskServer over loopback. Each connection is a keep-alive HTTP/1.1
+// socket driven by its own virtual thread, which sends a request, reads the whole response and
+// sends the next one. A minimal HTTP client is used on purpose, so the client side stays cheap
+// and the numbers mostly measure the server.
+//
+// Usage: java taskmanager.LoadGenerator [--port <port>] [--connections 64] [--seconds 10]
+//            [--tasks 10000] [--write-percent 10]
+// Without --port an embedded server is started on an ephemeral port in the same JVM.
+// Reads are GET /tasks/{id}; writes alternate between completing and reassigning a task.
+final class LoadGenerator {
+    private static final String USERNAME = "load";
+    private static final String PASSWORD = "load";
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = -1;
+        int connections = 64;
+        int seconds = 10;
+        int tasks = 10_000;
+        int writePercent = 10;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            int value = Integer.parseInt(args[i + 1]);
+            switch (args[i]) {
+                case "--port":
+                    port = value;
+                    break;
+                case "--connections":
+                    connections = value;
+                    break;
+                case "--seconds":
+                    seconds = value;
+                    break;
+                case "--tasks":
+                    tasks = value;
+                    break;
+                case "--write-percent":
+                    writePercent = value;
+                    break;
+                default:
+                    System.out.println("Unknown option " + args[i]);
+                    return;
+            }
+        }
+
+        TaskServer embedded = null;
+        if (port < 0) {
+            embedded = TaskServer.start(new TaskManager(), new InetSocketAddress("127.0.0.1", 0));
+            port = embedded.getPort();
+            System.out.println("Started embedded server on port " + port + ".");
+        }
+        try {
+            run(port, connections, seconds, tasks, writePercent);
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    private static void run(final int port, final int connections, final int seconds, final int tasks,
+                            final int writePercent) throws Exception {
+        String token;
+        try (Connection setup = new Connection(port, null)) {
+            setup.send("POST", "/users", form("username", USERNAME, "password", PASSWORD));
+            if (setup.send("POST", "/sessions", form("username", USERNAME, "password", PASSWORD)) != 201) {
+                throw new IOException("Login failed: " + setup.body());
+            }
+            String body = setup.body();
+            int start = body.indexOf("\"token\":\"") + 9;
+            token = body.substring(start, body.indexOf('"', start));
+        }
+
+        System.out.println("Seeding " + tasks + " task(s)...");
+        try (Connection seed = new Connection(port, token)) {
+            for (int i = 0; i < tasks; i++) {
+                int status = seed.send("POST", "/tasks", form("id", "L" + i, "name", "Load task " + i,
+                        "deadline", "2026-0" + (1 + i % 9) + "-1" + (i % 10), "status", "Open", "priority", Integer.toString(1 + i % 5)));
+                if (status != 201) {
+                    throw new IOException("Seeding failed with " + status + ": " + seed.body());
+                }
+            }
+        }
+
+        System.out.println("Running " + connections + " connection(s) for " + seconds + " s, "
+                + writePercent + "% writes...");
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<Worker>> futures = new ArrayList<>();
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < connections; c++) {
+                Worker worker = new Worker(port, token, tasks, writePercent, deadline);
+                futures.add(executor.submit(worker::call));
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+
+        long requests = 0;
+        long errors = 0;
+        long[] latencies = new long[0];
+        for (Future<Worker> future : futures) {
+            Worker worker = future.get();
+            requests += worker.requests;
+            errors += worker.errors;
+            int offset = latencies.length;
+            int count = (int) Math.min(worker.requests, worker.latencies.length);
+            latencies = Arrays.copyOf(latencies, offset + count);
+            System.arraycopy(worker.latencies, 0, latencies, offset, count);
+        }
+        Arrays.sort(latencies);
+        System.out.printf(Locale.ROOT, "%d request(s), %d error(s), %.0f requests/sec%n", requests, errors, requests * 1e9 / elapsed);
+        if (latencies.length > 0) {
+            System.out.printf(Locale.ROOT, "latency p50 %.3f ms, p99 %.3f ms, p99.9 %.3f ms, max %.3f ms%n",
+                    percentile(latencies, 0.50) / 1e6, percentile(latencies, 0.99) / 1e6,
+                    percentile(latencies, 0.999) / 1e6, latencies[latencies.length - 1] / 1e6);
+        }
+    }
+
+    private static long percentile(final long[] sorted, final double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    private static String form(final String... pairs) {
+        StringBuilder form = new StringBuilder();
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (form.length() > 0) {
+                form.append('&');
+            }
+            form.append(URLEncoder.encode(pairs[i], StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(pairs[i + 1], StandardCharsets.UTF_8));
+        }
+        return form.toString();
+    }
+
+    // One connection's share of the load; latencies beyond the buffer overwrite earlier ones in turn.
+    private static final class Worker {
+        private final int port;
+        private final String token;
+        private final int tasks;
+        private final int writePercent;
+        private final long deadline;
+        private final long[] latencies = new long[1 << 18];
+        private long requests;
+        private long errors;
+
+        Worker(int port, String token, int tasks, int writePercent, long deadline) {
+            this.port = port;
+            this.token = token;
+            this.tasks = tasks;
+            this.writePercent = writePercent;
+            this.deadline = deadline;
+        }
+
+        Worker call() throws IOException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try (Connection connection = new Connection(port, token)) {
+                long now = System.nanoTime();
+                while (now < deadline) {
+                    String id = "L" + random.nextInt(tasks);
+                    int status;
+                    if (random.nextInt(100) < writePercent) {
+                        status = random.nextBoolean()
+                                ? connection.send("POST", "/tasks/" + id + "/complete", null)
+                                : connection.send("POST", "/tasks/" + id + "/assign", "username=user" + random.nextInt(100));
+                    } else {
+                        status = connection.send("GET", "/tasks/" + id, null);
+                    }
+                    long finished = System.nanoTime();
+                    latencies[(int) (requests++ % latencies.length)] = finished - now;
+                    if (status != 200) {
+                        errors++;
+                    }
+                    now = finished;
+                }
+            }
+            return this;
+        }
+    }
+
+    // Minimal keep-alive HTTP/1.1 client: handles Content-Length and chunked responses.
+    // Reads go through its own buffer rather than a BufferedInputStream, whose per-byte locking
+    // showed up as the client's main cost.
+    private static final class Connection implements Closeable {
+        private final Socket socket;
+        private final OutputStream out;
+        private final InputStream in;
+        private final byte[] buffer;
+        private int position;
+        private int limit;
+        private final String authorization;
+        private final ByteArrayOutputStream body;
+
+        Connection(int port, String token) throws IOException {
+            socket = new Socket("127.0.0.1", port);
+            socket.setTcpNoDelay(true);
+            out = socket.getOutputStream();
+            in = socket.getInputStream();
+            buffer = new byte[16 * 1024];
+            authorization = token == null ? "" : "Authorization: Bearer " + token + "\r\n";
+            body = new ByteArrayOutputStream();
+        }
+
+        int send(final String method, final String path, final String form) throws IOException {
+            StringBuilder request = new StringBuilder(256)
+                    .append(method).append(' ').append(path).append(" HTTP/1.1\r\nHost: localhost\r\n")
+                    .append(authorization);
+            byte[] payload = form == null ? null : form.getBytes(StandardCharsets.UTF_8);
+            if (payload != null) {
+                request.append("Content-Type: application/x-www-form-urlencoded\r\nContent-Length: ")
+                        .append(payload.length).append("\r\n");
+            } else if (!method.equals("GET")) {
+                request.append("Content-Length: 0\r\n");
+            }
+            request.append("\r\n");
+            byte[] head = request.toString().getBytes(StandardCharsets.ISO_8859_1);
+            if (payload != null) {
+                head = Arrays.copyOf(head, head.length + payload.length);
+                System.arraycopy(payload, 0, head, head.length - payload.length, payload.length);
+            }
+            out.write(head);
+            return readResponse();
+        }
+
+        String body() {
+            return body.toString(StandardCharsets.UTF_8);
+        }
+
+        private int readResponse() throws IOException {
+            String statusLine = readLine();
+            int status = Integer.parseInt(statusLine.substring(9, 12));
+            long length = 0;
+            boolean chunked = false;
+            String line;
+            while (!(line = readLine()).isEmpty()) {
+                int colon = line.indexOf(':');
+                String name = line.substring(0, colon).trim();
+                if (name.equalsIgnoreCase("Content-Length")) {
+                    length = Long.parseLong(line.substring(colon + 1).trim());
+                } else if (name.equalsIgnoreCase("Transfer-Encoding")) {
+                    chunked = line.substring(colon + 1).trim().equalsIgnoreCase("chunked");
+                }
+            }
+            body.reset();
+            if (chunked) {
+                long size;
+                while ((size = Long.parseLong(readLine().trim(), 16)) > 0) {
+                    copy(size);
+                    readLine();
+                }
+                readLine();
+            } else {
+                copy(length);
+            }
+            return status;
+        }
+
+        private void copy(long remaining) throws IOException {
+            while (remaining > 0) {
+                fill();
+                int count = (int) Math.min(remaining, limit - position);
+                body.write(buffer, position, count);
+                position += count;
+                remaining -= count;
+            }
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            while (true) {
+                fill();
+                byte b = buffer[position++];
+                if (b == '\n') {
+                    return line.toString();
+                }
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+        }
+
+        private void fill() throws IOException {
+            if (position < limit) {
+                return;
+            }
+            limit = in.read(buffer);
+            position = 0;
+            if (limit < 0) {
+                throw new EOFException("Connection closed by server");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,816 @@
+package taskmanager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+
+// MappedTaskMap Class
+// Off-heap task store: records and the hash table live in memory-mapped files, so the heap holds
+// neither the tasks nor their table, and the data outlives the process. The directory holds:
+//   tasks.dat  an append-only record log. A record is an 8-byte-aligned length + flag header, the
+//              id hash, then the fields. An edit appends a new record and flags the old one dead;
+//              dead space is compacted away once it is half the file.
+//   tasks.idx  an open-addressing table of 8-byte buckets: a 24-bit hash fingerprint and the
+//              record offset / 8. It is linear probed with backward-shift deletion, so there are
+//              no tombstones.
+// A lookup hashes the id, probes the buckets and compares the id bytes in place, so finding a
+// record allocates nothing; only the Task that get() returns is built. Both files grow by
+// remapping: the last mapped window is replaced by a larger one, and a full table is rehashed
+// into a new file that is renamed over the old one.
+// The data file records whether it was closed cleanly. If it was not, the table is rebuilt by
+// scanning the records, and for an id found twice the later record wins. Writes reach the disk
+// through the page cache; for crash durability use it with the write-ahead log (--data-dir).
+class MappedTaskMap extends CustomHashMap<String, Task> implements Closeable {
+    private final Store store;
+
+    public MappedTaskMap(Path directory) throws IOException {
+        this(new Store(directory));
+    }
+
+    private MappedTaskMap(Store store) {
+        super(store);
+        this.store = store;
+    }
+
+    @Override
+    public Collection<Task> snapshotValues() {
+        return store.snapshot();
+    }
+
+    @Override
+    protected Collection<Map.Entry<String, Task>> entrySnapshot() {
+        List<Map.Entry<String, Task>> entries = new ArrayList<>(size());
+        for (Task task : store.snapshot()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(task.getId(), task));
+        }
+        return entries;
+    }
+
+    // Bytes of the two files currently mapped, live and dead records included.
+    public long mappedBytes() {
+        return store.mappedBytes();
+    }
+
+    // Pushes mapped pages to disk.
+    public void flush() {
+        store.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    private static final class Store extends AbstractMap<String, Task> implements Closeable {
+        private static final long DATA_MAGIC = 0x5044535444415441L;
+        private static final long INDEX_MAGIC = 0x504453544944584CL;
+        private static final int VERSION = 1;
+        private static final int HEADER_BYTES = 64;
+        // Data header fields.
+        private static final int CLEAN_AT = 12;
+        private static final int END_AT = 16;
+        private static final int LIVE_AT = 24;
+        private static final int GARBAGE_AT = 32;
+        // Index header field.
+        private static final int CAPACITY_AT = 8;
+
+        private static final byte LIVE = 1;
+        private static final byte DEAD = 2;
+        // Fills the tail of a mapping window that a record did not fit in.
+        private static final byte PADDING = 3;
+        private static final int NO_DEADLINE = Integer.MIN_VALUE;
+        private static final int TEXT_DEADLINE = Integer.MIN_VALUE + 1;
+        private static final long OFFSET_MASK = (1L << 40) - 1;
+        private static final int MIN_CAPACITY = 1024;
+        private static final long MIN_COMPACT_BYTES = 64L << 20;
+
+        private final Path dataFile;
+        private final Path indexFile;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private MappedRegion data;
+        private MappedRegion index;
+        private long capacity;
+        private long dataEnd;
+        private long size;
+        private long garbage;
+        private byte[] writeBuffer = new byte[256];
+
+        Store(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            dataFile = directory.resolve("tasks.dat");
+            indexFile = directory.resolve("tasks.idx");
+            data = new MappedRegion(dataFile);
+            boolean fresh = data.size() == 0;
+            if (fresh) {
+                data.ensure(HEADER_BYTES);
+                data.putLong(0, DATA_MAGIC);
+                data.putInt(8, VERSION);
+                data.putLong(END_AT, HEADER_BYTES);
+            } else if (data.size() < HEADER_BYTES || data.getLong(0) != DATA_MAGIC || data.getInt(8) != VERSION) {
+                data.close();
+                throw new IOException(dataFile + " is not a task store.");
+            }
+            dataEnd = data.getLong(END_AT);
+            size = data.getLong(LIVE_AT);
+            garbage = data.getLong(GARBAGE_AT);
+            boolean clean = fresh || data.getInt(CLEAN_AT) == 1;
+            index = Files.exists(indexFile) ? new MappedRegion(indexFile) : null;
+            if (clean && index != null && index.size() >= HEADER_BYTES && index.getLong(0) == INDEX_MAGIC) {
+                capacity = index.getLong(CAPACITY_AT);
+            } else {
+                if (index != null) {
+                    index.close();
+                }
+                rebuildIndex();
+            }
+            data.putInt(CLEAN_AT, 0);
+        }
+
+        @Override
+        public Task get(final Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            lock.readLock().lock();
+            try {
+                long bucket = find((String) key);
+                return bucket < 0 ? null : read(recordAt(bucket));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            if (!(key instanceof String)) {
+                return false;
+            }
+            lock.readLock().lock();
+            try {
+                return find((String) key) >= 0;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public int size() {
+            lock.readLock().lock();
+            try {
+                return (int) Math.min(size, Integer.MAX_VALUE);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public Task put(final String key, final Task task) {
+            lock.writeLock().lock();
+            try {
+                int hash = key.hashCode();
+                long record = append(key, hash, task);
+                long bucket = find(key);
+                Task previous = null;
+                if (bucket >= 0) {
+                    long old = recordAt(bucket);
+                    previous = read(old);
+                    kill(old);
+                    index.putLong(bucketAt(bucket), pack(hash, record));
+                } else {
+                    insert(hash, record);
+                    size++;
+                    data.putLong(LIVE_AT, size);
+                    if (size * 2 > capacity) {
+                        resizeIndex(capacity * 2);
+                    }
+                }
+                compactIfWasteful();
+                return previous;
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Task remove(final Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            lock.writeLock().lock();
+            try {
+                long bucket = find((String) key);
+                if (bucket < 0) {
+                    return null;
+                }
+                long old = recordAt(bucket);
+                Task previous = read(old);
+                kill(old);
+                delete(bucket);
+                size--;
+                data.putLong(LIVE_AT, size);
+                compactIfWasteful();
+                return previous;
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Every get() builds a new Task, so "still the expected task" means equal fields.
+        @Override
+        public boolean replace(final String key, final Task expected, final Task replacement) {
+            lock.writeLock().lock();
+            try {
+                long bucket = find(key);
+                if (bucket < 0 || !read(recordAt(bucket)).hasSameFields(expected)) {
+                    return false;
+                }
+                put(key, replacement);
+                return true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Task computeIfPresent(final String key, final BiFunction<? super String, ? super Task, ? extends Task> remapping) {
+            lock.writeLock().lock();
+            try {
+                long bucket = find(key);
+                if (bucket < 0) {
+                    return null;
+                }
+                Task updated = remapping.apply(key, read(recordAt(bucket)));
+                if (updated == null) {
+                    remove(key);
+                } else {
+                    put(key, updated);
+                }
+                return updated;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void clear() {
+            lock.writeLock().lock();
+            try {
+                dataEnd = HEADER_BYTES;
+                size = 0;
+                garbage = 0;
+                data.putLong(END_AT, dataEnd);
+                data.putLong(LIVE_AT, 0);
+                data.putLong(GARBAGE_AT, 0);
+                resizeIndex(MIN_CAPACITY);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // Like HashMap's views, iteration is not guarded. snapshot() iterates under this store's lock
+        // and TaskManager walks getAllValues() only under its store lock; other callers use snapshotValues().
+        // Records are visited in file order, which is sequential I/O.
+        @Override
+        public Set<Entry<String, Task>> entrySet() {
+            return new AbstractSet<Entry<String, Task>>() {
+                @Override
+                public Iterator<Entry<String, Task>> iterator() {
+                    Iterator<Task> tasks = values().iterator();
+                    return new Iterator<Entry<String, Task>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return tasks.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Task> next() {
+                            Task task = tasks.next();
+                            return new SimpleImmutableEntry<>(task.getId(), task);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return Store.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Collection<Task> values() {
+            return new AbstractCollection<Task>() {
+                @Override
+                public Iterator<Task> iterator() {
+                    return new Iterator<Task>() {
+                        private long record = nextLive(HEADER_BYTES);
+
+                        @Override
+                        public boolean hasNext() {
+                            return record < dataEnd;
+                        }
+
+                        @Override
+                        public Task next() {
+                            if (record >= dataEnd) {
+                                throw new NoSuchElementException();
+                            }
+                            Task task = read(record);
+                            record = nextLive(record + align(data.getInt(record)));
+                            return task;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return Store.this.size();
+                }
+            };
+        }
+
+        List<Task> snapshot() {
+            lock.readLock().lock();
+            try {
+                return Collections.unmodifiableList(new ArrayList<>(values()));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        long mappedBytes() {
+            lock.readLock().lock();
+            try {
+                return data.size() + index.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void flush() {
+            lock.writeLock().lock();
+            try {
+                data.force();
+                index.force();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            lock.writeLock().lock();
+            try {
+                index.force();
+                data.putInt(CLEAN_AT, 1);
+                data.force();
+                data.close();
+                index.close();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        private long nextLive(long record) {
+            while (record < dataEnd && data.get(record + 4) != LIVE) {
+                record += align(data.getInt(record));
+            }
+            return record;
+        }
+
+        // Hash table
+
+        private static int spread(final int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private static long pack(final int hash, final long record) {
+            return ((long) (hash >>> 8) << 40) | (record >>> 3);
+        }
+
+        private static long bucketAt(final long bucket) {
+            return HEADER_BYTES + bucket * 8;
+        }
+
+        private long recordAt(final long bucket) {
+            return (index.getLong(bucketAt(bucket)) & OFFSET_MASK) << 3;
+        }
+
+        // Bucket number holding the key, or -1. Allocation-free.
+        private long find(final String key) {
+            int hash = key.hashCode();
+            long fingerprint = (long) (hash >>> 8) << 40;
+            long mask = capacity - 1;
+            for (long i = spread(hash) & mask; ; i = (i + 1) & mask) {
+                long entry = index.getLong(bucketAt(i));
+                if (entry == 0) {
+                    return -1;
+                }
+                if ((entry & ~OFFSET_MASK) == fingerprint && idMatches((entry & OFFSET_MASK) << 3, key)) {
+                    return i;
+                }
+            }
+        }
+
+        private void insert(final int hash, final long record) {
+            long mask = capacity - 1;
+            long i = spread(hash) & mask;
+            while (index.getLong(bucketAt(i)) != 0) {
+                i = (i + 1) & mask;
+            }
+            index.putLong(bucketAt(i), pack(hash, record));
+        }
+
+        private void delete(final long bucket) {
+            long mask = capacity - 1;
+            long hole = bucket;
+            for (long j = (hole + 1) & mask; ; j = (j + 1) & mask) {
+                long entry = index.getLong(bucketAt(j));
+                if (entry == 0) {
+                    break;
+                }
+                long home = spread(data.getInt(((entry & OFFSET_MASK) << 3) + 8)) & mask;
+                // Move the entry back unless its home lies in the cyclic range (hole, j].
+                if (hole <= j ? (home <= hole || home > j) : (home <= hole && home > j)) {
+                    index.putLong(bucketAt(hole), entry);
+                    hole = j;
+                }
+            }
+            index.putLong(bucketAt(hole), 0);
+        }
+
+        // Rehashes into a new table file, which then replaces the old one.
+        private void resizeIndex(final long newCapacity) throws IOException {
+            Path next = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+            Files.deleteIfExists(next);
+            MappedRegion resized = new MappedRegion(next);
+            resized.ensure(HEADER_BYTES + newCapacity * 8);
+            resized.putLong(0, INDEX_MAGIC);
+            resized.putLong(CAPACITY_AT, newCapacity);
+            MappedRegion old = index;
+            long oldCapacity = capacity;
+            index = resized;
+            capacity = newCapacity;
+            if (old != null && size > 0) {
+                for (long i = 0; i < oldCapacity; i++) {
+                    long entry = old.getLong(bucketAt(i));
+                    if (entry != 0) {
+                        insert(data.getInt(((entry & OFFSET_MASK) << 3) + 8), (entry & OFFSET_MASK) << 3);
+                    }
+                }
+            }
+            if (old != null) {
+                old.close();
+            }
+            Files.move(next, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        // Recovery: a fresh table from the live records, in file order.
+        private void rebuildIndex() throws IOException {
+            long live = 0;
+            for (long record = nextLive(HEADER_BYTES); record < dataEnd; record = nextLive(record + align(data.getInt(record)))) {
+                live++;
+            }
+            index = null;
+            size = 0;
+            resizeIndex(capacityFor(live));
+            for (long record = nextLive(HEADER_BYTES); record < dataEnd; record = nextLive(record + align(data.getInt(record)))) {
+                String id = readId(record);
+                long bucket = find(id);
+                if (bucket >= 0) {
+                    kill(recordAt(bucket));
+                    index.putLong(bucketAt(bucket), pack(data.getInt(record + 8), record));
+                } else {
+                    insert(data.getInt(record + 8), record);
+                    size++;
+                }
+            }
+            data.putLong(LIVE_AT, size);
+        }
+
+        private static long capacityFor(final long entries) {
+            long capacity = MIN_CAPACITY;
+            while (capacity < entries * 2) {
+                capacity <<= 1;
+            }
+            return capacity;
+        }
+
+        // Records
+
+        private static long align(final long length) {
+            return (length + 7) & ~7L;
+        }
+
+        private void kill(final long record) {
+            data.put(record + 4, DEAD);
+            garbage += align(data.getInt(record));
+            data.putLong(GARBAGE_AT, garbage);
+        }
+
+        // Copies the live records into a new file and rebuilds the table over it.
+        private void compactIfWasteful() throws IOException {
+            if (garbage < MIN_COMPACT_BYTES || garbage * 2 < dataEnd) {
+                return;
+            }
+            Path next = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+            Files.deleteIfExists(next);
+            MappedRegion compacted = new MappedRegion(next);
+            compacted.ensure(HEADER_BYTES);
+            compacted.putLong(0, DATA_MAGIC);
+            compacted.putInt(8, VERSION);
+            long end = HEADER_BYTES;
+            byte[] buffer = new byte[256];
+            for (long record = nextLive(HEADER_BYTES); record < dataEnd; record = nextLive(record + align(data.getInt(record)))) {
+                int length = data.getInt(record);
+                if (buffer.length < length) {
+                    buffer = new byte[length];
+                }
+                data.get(record, buffer, length);
+                end = MappedRegion.fitInWindow(compacted, end, length);
+                compacted.ensure(end + align(length));
+                compacted.put(end, buffer, length);
+                end += align(length);
+            }
+            compacted.putLong(END_AT, end);
+            data.close();
+            Files.move(next, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            data = compacted;
+            dataEnd = end;
+            garbage = 0;
+            data.putLong(GARBAGE_AT, 0);
+            index.close();
+            rebuildIndex();
+        }
+
+        private long append(final String id, final int hash, final Task task) {
+            int length = encode(id, hash, task);
+            long record = MappedRegion.fitInWindow(data, dataEnd, length);
+            data.ensure(record + align(length));
+            data.put(record, writeBuffer, length);
+            dataEnd = record + align(length);
+            data.putLong(END_AT, dataEnd);
+            return record;
+        }
+
+        // Layout: int length, byte flag, 3 pad, int hash, id, int priority, int deadline day,
+        // [deadline text], name, status, assignee, reminder. Strings are an int byte count
+        // (-1 for null) and UTF-8 bytes.
+        private int encode(final String id, final int hash, final Task task) {
+            int length = 8;
+            length = putInt(length, hash);
+            length = putString(length, id);
+            length = putInt(length, task.getPriority());
+            String deadline = task.getDeadline();
+            long epochDay = DeadlineIndex.epochDayOf(deadline);
+            if (deadline == null) {
+                length = putInt(length, NO_DEADLINE);
+            } else if (epochDay == DeadlineIndex.MALFORMED || epochDay <= TEXT_DEADLINE || epochDay > Integer.MAX_VALUE) {
+                length = putInt(length, TEXT_DEADLINE);
+                length = putString(length, deadline);
+            } else {
+                length = putInt(length, (int) epochDay);
+            }
+            length = putString(length, task.getName());
+            length = putString(length, task.getStatus());
+            length = putString(length, task.getAssignedTo());
+            length = putString(length, task.getReminder());
+            if (length > MappedRegion.WINDOW_BYTES) {
+                throw new IllegalArgumentException("Task " + id + " is too large to store.");
+            }
+            putInt(0, length);
+            writeBuffer[4] = LIVE;
+            return length;
+        }
+
+        private int putInt(final int at, final int value) {
+            ensureWriteBuffer(at + 4);
+            writeBuffer[at] = (byte) (value >>> 24);
+            writeBuffer[at + 1] = (byte) (value >>> 16);
+            writeBuffer[at + 2] = (byte) (value >>> 8);
+            writeBuffer[at + 3] = (byte) value;
+            return at + 4;
+        }
+
+        private int putString(final int at, final String value) {
+            if (value == null) {
+                return putInt(at, -1);
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int next = putInt(at, bytes.length);
+            ensureWriteBuffer(next + bytes.length);
+            System.arraycopy(bytes, 0, writeBuffer, next, bytes.length);
+            return next + bytes.length;
+        }
+
+        private void ensureWriteBuffer(final int length) {
+            if (writeBuffer.length < length) {
+                writeBuffer = Arrays.copyOf(writeBuffer, Math.max(length, writeBuffer.length * 2));
+            }
+        }
+
+        // Strings are decoded through one scratch array as long as the record, local to this call,
+        // so no buffer stays attached to each of the server's short-lived virtual threads.
+        private Task read(final long record) {
+            byte[] scratch = new byte[data.getInt(record)];
+            long at = record + 12;
+            int idLength = data.getInt(at);
+            String id = readString(at, scratch);
+            at += 4 + idLength;
+            int priority = data.getInt(at);
+            int day = data.getInt(at + 4);
+            at += 8;
+            String deadline = null;
+            if (day == TEXT_DEADLINE) {
+                deadline = readString(at, scratch);
+                at = skipString(at);
+            } else if (day != NO_DEADLINE) {
+                deadline = LocalDate.ofEpochDay(day).toString();
+            }
+            String name = readString(at, scratch);
+            at = skipString(at);
+            String status = readString(at, scratch);
+            at = skipString(at);
+            String assignee = readString(at, scratch);
+            at = skipString(at);
+            String reminder = readString(at, scratch);
+            return Task.builder(id).name(name).deadline(deadline).status(status).priority(priority)
+                    .assignedTo(assignee).reminder(reminder).build();
+        }
+
+        private String readId(final long record) {
+            return readString(record + 12, new byte[Math.max(0, data.getInt(record + 12))]);
+        }
+
+        private long skipString(final long at) {
+            int length = data.getInt(at);
+            return at + 4 + Math.max(length, 0);
+        }
+
+        // The buffer must hold at least the string's bytes.
+        private String readString(final long at, final byte[] buffer) {
+            int length = data.getInt(at);
+            if (length < 0) {
+                return null;
+            }
+            data.get(at + 4, buffer, length);
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        // Compares the stored UTF-8 id with the key, encoding the key on the fly.
+        private boolean idMatches(final long record, final String key) {
+            long at = record + 12;
+            int length = data.getInt(at);
+            at += 4;
+            int position = 0;
+            for (int i = 0; i < key.length(); i++) {
+                int c = key.charAt(i);
+                if (Character.isHighSurrogate((char) c) && i + 1 < key.length() && Character.isLowSurrogate(key.charAt(i + 1))) {
+                    c = Character.toCodePoint((char) c, key.charAt(++i));
+                }
+                int bytes = c < 0x80 ? 1 : c < 0x800 ? 2 : c < 0x10000 ? 3 : 4;
+                if (position + bytes > length) {
+                    return false;
+                }
+                if (bytes == 1) {
+                    if (data.get(at + position) != (byte) c) {
+                        return false;
+                    }
+                } else {
+                    int lead = bytes == 2 ? 0xC0 : bytes == 3 ? 0xE0 : 0xF0;
+                    if (data.get(at + position) != (byte) (lead | (c >>> (6 * (bytes - 1))))) {
+                        return false;
+                    }
+                    for (int k = 1; k < bytes; k++) {
+                        if (data.get(at + position + k) != (byte) (0x80 | ((c >>> (6 * (bytes - 1 - k))) & 0x3F))) {
+                            return false;
+                        }
+                    }
+                }
+                position += bytes;
+            }
+            return position == length;
+        }
+    }
+
+    // A file mapped as a run of windows of up to 1 GiB, the most one MappedByteBuffer can cover,
+    // addressed by long offsets. Values never straddle windows: the table's buckets are aligned,
+    // and records are placed with fitInWindow. Growing remaps the last window at its new length
+    // and maps any new ones after it.
+    private static final class MappedRegion implements Closeable {
+        static final int WINDOW_BITS = 30;
+        static final int WINDOW_BYTES = 1 << WINDOW_BITS;
+
+        private final FileChannel channel;
+        private MappedByteBuffer[] windows = new MappedByteBuffer[0];
+        private long size;
+
+        MappedRegion(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            map(channel.size());
+        }
+
+        long size() {
+            return size;
+        }
+
+        // Grows to at least the given size, doubling so appends remap rarely.
+        void ensure(final long bytes) {
+            if (bytes > size) {
+                try {
+                    map(Math.max(bytes, Math.min(size * 2, size + WINDOW_BYTES)));
+                } catch (IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            }
+        }
+
+        // Where a record of the given length starting at or after offset goes: if it would cross
+        // into the next window, the rest of this window is padded and it starts there instead.
+        static long fitInWindow(final MappedRegion region, final long offset, final int length) {
+            long windowEnd = ((offset >>> WINDOW_BITS) + 1) << WINDOW_BITS;
+            if (offset + length <= windowEnd) {
+                return offset;
+            }
+            region.ensure(windowEnd);
+            region.putInt(offset, (int) (windowEnd - offset));
+            region.put(offset + 4, Store.PADDING);
+            return windowEnd;
+        }
+
+        private void map(final long newSize) throws IOException {
+            int count = (int) ((newSize + WINDOW_BYTES - 1) >>> WINDOW_BITS);
+            windows = Arrays.copyOf(windows, count);
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << WINDOW_BITS;
+                long length = Math.min(WINDOW_BYTES, newSize - start);
+                if (windows[i] == null || windows[i].capacity() < length) {
+                    windows[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, length);
+                }
+            }
+            size = newSize;
+        }
+
+        byte get(final long at) {
+            return windows[(int) (at >>> WINDOW_BITS)].get((int) at & (WINDOW_BYTES - 1));
+        }
+
+        void put(final long at, final byte value) {
+            windows[(int) (at >>> WINDOW_BITS)].put((int) at & (WINDOW_BYTES - 1), value);
+        }
+
+        int getInt(final long at) {
+            return windows[(int) (at >>> WINDOW_BITS)].getInt((int) at & (WINDOW_BYTES - 1));
+        }
+
+        void putInt(final long at, final int value) {
+            windows[(int) (at >>> WINDOW_BITS)].putInt((int) at & (WINDOW_BYTES - 1), value);
+        }
+
+        long getLong(final long at) {
+            return windows[(int) (at >>> WINDOW_BITS)].getLong((int) at & (WINDOW_BYTES - 1));
+        }
+
+        void putLong(final long at, final long value) {
+            windows[(int) (at >>> WINDOW_BITS)].putLong((int) at & (WINDOW_BYTES - 1), value);
+        }
+
+        void get(final long at, final byte[] destination, final int length) {
+            windows[(int) (at >>> WINDOW_BITS)].get((int) at & (WINDOW_BYTES - 1), destination, 0, length);
+        }
+
+        void put(final long at, final byte[] source, final int length) {
+            windows[(int) (at >>> WINDOW_BITS)].put((int) at & (WINDOW_BYTES - 1), source, 0, length);
+        }
+
+        void force() {
+            for (MappedByteBuffer window : windows) {
+                window.force();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            force();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,500 @@
+package taskmanager;
+
+import java.util.*;
+
+// NameSearchIndex Class
+// Inverted index over the words of task names, for token, prefix and fuzzy search with ranking.
+// Tasks are identified by their TaskOrdinals number, and every word maps to a sorted int[] posting
+// list of the ordinals whose name contains it. Words live in a sorted vocabulary, so a prefix query is a range
+// scan. Fuzzy matching uses a deletion index (every word under each string obtained by deleting
+// up to two characters); query deletions are looked up in it and each candidate is checked with
+// the real edit distance.
+//
+// A query matches a task when every query word matches one of its words, exactly, as a prefix or
+// within the edit distance. Results are ranked by summed match quality, then shorter names, then age.
+class NameSearchIndex {
+    private static final int EXACT_SCORE = 100;
+    private static final int PREFIX_SCORE = 50;
+    private static final int[] FUZZY_SCORE = {EXACT_SCORE, 30, 15};
+    private static final int MIN_PREFIX_LENGTH = 2;
+    // A query word expands to at most this many prefix or fuzzy vocabulary words.
+    private static final int MAX_EXPANSIONS = 128;
+    private static final int MAX_DISTANCE = 2;
+    private static final int MAX_FUZZY_WORD_LENGTH = 24;
+
+    private final NavigableMap<String, Postings> vocabulary;
+    // Deletion variant -> word (String) or words (Set<String>), as in TaskIndex.
+    private final Map<String, Object> deletions;
+    private int[] nameLengths;
+
+    public NameSearchIndex() {
+        vocabulary = new TreeMap<>();
+        deletions = new HashMap<>();
+        nameLengths = new int[1024];
+    }
+
+    public void add(final int ordinal, final String name) {
+        if (ordinal >= nameLengths.length) {
+            nameLengths = Arrays.copyOf(nameLengths, Math.max(ordinal + 1, nameLengths.length * 2));
+        }
+        nameLengths[ordinal] = name == null ? 0 : name.length();
+        for (String word : words(name)) {
+            postingsFor(word).add(ordinal);
+        }
+    }
+
+    public void remove(final int ordinal, final String name) {
+        for (String word : words(name)) {
+            removePosting(word, ordinal);
+        }
+    }
+
+    // Only the words that changed are touched.
+    public void rename(final int ordinal, final String oldName, final String newName) {
+        Set<String> oldWords = words(oldName);
+        Set<String> newWords = words(newName);
+        for (String word : oldWords) {
+            if (!newWords.contains(word)) {
+                removePosting(word, ordinal);
+            }
+        }
+        for (String word : newWords) {
+            if (!oldWords.contains(word)) {
+                postingsFor(word).add(ordinal);
+            }
+        }
+        nameLengths[ordinal] = newName == null ? 0 : newName.length();
+    }
+
+    public void clear() {
+        vocabulary.clear();
+        deletions.clear();
+    }
+
+    // Ordinals of the best matches, best first.
+    public int[] search(final String query, final int limit) {
+        List<List<Expansion>> matches = new ArrayList<>();
+        for (String word : words(query)) {
+            List<Expansion> expansions = expand(word);
+            if (expansions.isEmpty()) {
+                return new int[0];
+            }
+            matches.add(expansions);
+        }
+        if (matches.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        // Candidates come from the most selective word; the others are probed per candidate.
+        matches.sort(Comparator.comparingLong(NameSearchIndex::estimatedSize));
+        List<Expansion> driver = matches.get(0);
+        TopK top = new TopK(limit);
+        if (driver.size() == 1) {
+            Postings postings = driver.get(0).postings;
+            for (int i = 0; i < postings.size; i++) {
+                offer(top, matches, postings.ordinals[i], driver.get(0).score);
+            }
+        } else {
+            long[] merged = merge(driver);
+            int previous = -1;
+            for (long key : merged) {
+                int ordinal = (int) (key >>> 8);
+                if (ordinal != previous) {
+                    offer(top, matches, ordinal, 255 - (int) (key & 0xFF));
+                    previous = ordinal;
+                }
+            }
+        }
+        long[] ranked = top.sorted();
+        int[] ordinals = new int[ranked.length];
+        for (int i = 0; i < ranked.length; i++) {
+            ordinals[i] = TopK.ordinalOf(ranked[i]);
+        }
+        return ordinals;
+    }
+
+    private void offer(final TopK top, final List<List<Expansion>> matches, final int ordinal, final int firstScore) {
+        int score = firstScore;
+        for (int i = 1; i < matches.size(); i++) {
+            int best = 0;
+            for (Expansion expansion : matches.get(i)) {
+                if (expansion.score > best && expansion.advanceTo(ordinal)) {
+                    best = expansion.score;
+                }
+            }
+            if (best == 0) {
+                return;
+            }
+            score += best;
+        }
+        top.offer(score, nameLengths[ordinal], ordinal);
+    }
+
+    // Sorted (ordinal, best score first) keys over the union of several posting lists.
+    private static long[] merge(final List<Expansion> expansions) {
+        int total = 0;
+        for (Expansion expansion : expansions) {
+            total += expansion.postings.size;
+        }
+        long[] keys = new long[total];
+        int n = 0;
+        for (Expansion expansion : expansions) {
+            Postings postings = expansion.postings;
+            for (int i = 0; i < postings.size; i++) {
+                keys[n++] = ((long) postings.ordinals[i] << 8) | (255 - expansion.score);
+            }
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private static long estimatedSize(final List<Expansion> expansions) {
+        long size = 0;
+        for (Expansion expansion : expansions) {
+            size += expansion.postings.size;
+        }
+        return size;
+    }
+
+    // The vocabulary words a query word matches, each with the best score it can earn.
+    private List<Expansion> expand(final String word) {
+        Map<String, Integer> scores = new LinkedHashMap<>();
+        if (vocabulary.containsKey(word)) {
+            scores.put(word, EXACT_SCORE);
+        }
+        if (word.length() >= MIN_PREFIX_LENGTH) {
+            for (String candidate : vocabulary.subMap(word, false, word + Character.MAX_VALUE, false).keySet()) {
+                if (scores.size() >= MAX_EXPANSIONS) {
+                    break;
+                }
+                scores.put(candidate, PREFIX_SCORE + 30 * word.length() / candidate.length());
+            }
+        }
+        int distance = maxDistance(word);
+        if (distance > 0) {
+            for (String variant : deletionVariants(word, distance)) {
+                Object found = deletions.get(variant);
+                if (found == null) {
+                    continue;
+                }
+                for (String candidate : found instanceof String ? Collections.singleton((String) found) : asSet(found)) {
+                    if (scores.size() >= MAX_EXPANSIONS) {
+                        break;
+                    }
+                    if (!scores.containsKey(candidate)) {
+                        int actual = editDistance(word, candidate, distance);
+                        if (actual <= distance) {
+                            scores.put(candidate, FUZZY_SCORE[actual]);
+                        }
+                    }
+                }
+            }
+        }
+        List<Expansion> expansions = new ArrayList<>(scores.size());
+        scores.forEach((candidate, score) -> expansions.add(new Expansion(vocabulary.get(candidate), score)));
+        return expansions;
+    }
+
+    private static int maxDistance(final String word) {
+        if (word.length() < 3) {
+            return 0;
+        }
+        return word.length() < 6 ? 1 : MAX_DISTANCE;
+    }
+
+    private Postings postingsFor(final String word) {
+        Postings postings = vocabulary.get(word);
+        if (postings == null) {
+            postings = new Postings();
+            vocabulary.put(word, postings);
+            if (isFuzzyIndexed(word)) {
+                for (String variant : deletionVariants(word, MAX_DISTANCE)) {
+                    addVariant(variant, word);
+                }
+            }
+        }
+        return postings;
+    }
+
+    private void removePosting(final String word, final int ordinal) {
+        Postings postings = vocabulary.get(word);
+        if (postings == null) {
+            return;
+        }
+        postings.remove(ordinal);
+        if (postings.size == 0) {
+            vocabulary.remove(word);
+            if (isFuzzyIndexed(word)) {
+                for (String variant : deletionVariants(word, MAX_DISTANCE)) {
+                    removeVariant(variant, word);
+                }
+            }
+        }
+    }
+
+    // Numbers and very long words are left out of fuzzy matching; both would mostly add noise.
+    private static boolean isFuzzyIndexed(final String word) {
+        if (word.length() > MAX_FUZZY_WORD_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> asSet(final Object value) {
+        return (Set<String>) value;
+    }
+
+    private void addVariant(final String variant, final String word) {
+        Object current = deletions.putIfAbsent(variant, word);
+        if (current == null || current.equals(word)) {
+            return;
+        }
+        if (current instanceof String) {
+            Set<String> words = new LinkedHashSet<>();
+            words.add((String) current);
+            words.add(word);
+            deletions.put(variant, words);
+        } else {
+            asSet(current).add(word);
+        }
+    }
+
+    private void removeVariant(final String variant, final String word) {
+        Object current = deletions.get(variant);
+        if (current instanceof String) {
+            if (current.equals(word)) {
+                deletions.remove(variant);
+            }
+        } else if (current != null) {
+            Set<String> words = asSet(current);
+            if (words.remove(word) && words.size() == 1) {
+                deletions.put(variant, words.iterator().next());
+            }
+        }
+    }
+
+    // The word itself plus every non-empty string made by deleting up to the given number of characters.
+    static Set<String> deletionVariants(final String word, final int distance) {
+        Set<String> variants = new HashSet<>();
+        variants.add(word);
+        List<String> frontier = Collections.singletonList(word);
+        for (int d = 0; d < distance; d++) {
+            List<String> next = new ArrayList<>();
+            for (String current : frontier) {
+                for (int i = 0; i < current.length() && current.length() > 1; i++) {
+                    String variant = current.substring(0, i) + current.substring(i + 1);
+                    if (variants.add(variant)) {
+                        next.add(variant);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return variants;
+    }
+
+    // Optimal string alignment distance (insert, delete, substitute, swap neighbours), giving up
+    // with max + 1 as soon as it must exceed max.
+    static int editDistance(final String a, final String b, final int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    // Lower-cased runs of letters and digits, without repeats.
+    static Set<String> words(final String text) {
+        if (text == null) {
+            return Collections.emptySet();
+        }
+        Set<String> words = new LinkedHashSet<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    // Candidates arrive in ascending ordinal order, so each expansion keeps a cursor into its
+    // postings and gallops forward from it instead of searching the whole list again.
+    private static final class Expansion {
+        private final Postings postings;
+        private final int score;
+        private int cursor;
+
+        Expansion(Postings postings, int score) {
+            this.postings = postings;
+            this.score = score;
+        }
+
+        boolean advanceTo(final int ordinal) {
+            int[] ordinals = postings.ordinals;
+            int size = postings.size;
+            int low = cursor;
+            int step = 1;
+            int high = low;
+            while (high < size && ordinals[high] < ordinal) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int at = Arrays.binarySearch(ordinals, low, Math.min(high + 1, size), ordinal);
+            cursor = at >= 0 ? at : -at - 1;
+            return at >= 0;
+        }
+    }
+
+    // Sorted, duplicate-free ordinals. New tasks get the highest ordinal unless one was freed,
+    // so most adds append.
+    private static final class Postings {
+        private int[] ordinals = new int[2];
+        private int size;
+
+        void add(final int ordinal) {
+            if (size > 0 && ordinals[size - 1] < ordinal) {
+                grow();
+                ordinals[size++] = ordinal;
+                return;
+            }
+            int at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            grow();
+            System.arraycopy(ordinals, at, ordinals, at + 1, size - at);
+            ordinals[at] = ordinal;
+            size++;
+        }
+
+        void remove(final int ordinal) {
+            int at = Arrays.binarySearch(ordinals, 0, size, ordinal);
+            if (at >= 0) {
+                System.arraycopy(ordinals, at + 1, ordinals, at, size - at - 1);
+                size--;
+            }
+        }
+
+        private void grow() {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size + (size >> 1) + 1);
+            }
+        }
+    }
+
+    // Keeps the best `limit` hits in a min-heap of packed keys: score, then shorter name, then
+    // lower ordinal, so a larger key is a better hit.
+    private static final class TopK {
+        private final int limit;
+        private long[] heap;
+        private int size;
+
+        TopK(int limit) {
+            this.limit = limit;
+            this.heap = new long[Math.min(limit, 1024)];
+        }
+
+        static int ordinalOf(final long key) {
+            return Integer.MAX_VALUE - (int) (key & 0x7FFFFFFFL);
+        }
+
+        void offer(final int score, final int nameLength, final int ordinal) {
+            long key = ((long) Math.min(score, 0xFFFF) << 47)
+                    | ((long) (0xFFFF - Math.min(nameLength, 0xFFFF)) << 31)
+                    | (Integer.MAX_VALUE - ordinal);
+            if (size < limit) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, (int) Math.min(limit, size * 2L));
+                }
+                heap[size] = key;
+                siftUp(size++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(0);
+            }
+        }
+
+        long[] sorted() {
+            long[] keys = Arrays.copyOf(heap, size);
+            Arrays.sort(keys);
+            for (int i = 0, j = keys.length - 1; i < j; i++, j--) {
+                long swap = keys[i];
+                keys[i] = keys[j];
+                keys[j] = swap;
+            }
+            return keys;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (heap[parent] <= heap[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                if (left < size && heap[left] < heap[smallest]) {
+                    smallest = left;
+                }
+                if (left + 1 < size && heap[left + 1] < heap[smallest]) {
+                    smallest = left + 1;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(final int a, final int b) {
+            long t = heap[a];
+            heap[a] = heap[b];
+            heap[b] = t;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package taskmanager;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+// ParallelCsvImporter Class
+// Bulk CSV import for large files: the file is memory-mapped, split into line-aligned chunks,
+// the chunks are decoded on a fork-join pool, and the parsed values are handed to the caller
+// one chunk at a time in file order, so later rows still overwrite earlier ones.
+// Only a bounded window of chunks is in flight, which keeps memory proportional to the pool size.
+// A quoted field containing a line break that happens to straddle a chunk boundary is rejected;
+// the single-threaded importFromCSV accepts such records anywhere.
+class ParallelCsvImporter<V> {
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    private static final long MAX_CHUNK_BYTES = 64L << 20;
+    private static final int MAX_REPORTED_REJECTS = 10;
+
+    private final CsvCodec<V> codec;
+    private final ForkJoinPool pool;
+
+    public ParallelCsvImporter(CsvCodec<V> codec, ForkJoinPool pool) {
+        this.codec = codec;
+        this.pool = pool;
+    }
+
+    public Result importFile(final String filename, final Consumer<List<V>> batchSink) throws IOException {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            List<long[]> chunks = split(channel);
+            int window = Math.max(2, pool.getParallelism() * 2);
+            Deque<ForkJoinTask<Chunk<V>>> inFlight = new ArrayDeque<>();
+            int next = 0;
+            long imported = 0;
+            long rejected = 0;
+            while (next < chunks.size() || !inFlight.isEmpty()) {
+                while (next < chunks.size() && inFlight.size() < window) {
+                    long[] bounds = chunks.get(next);
+                    final boolean first = next == 0;
+                    inFlight.addLast(pool.submit(() -> parse(channel, bounds[0], bounds[1], first)));
+                    next++;
+                }
+                Chunk<V> chunk = join(inFlight.removeFirst());
+                batchSink.accept(chunk.values);
+                imported += chunk.values.size();
+                for (String reject : chunk.rejects) {
+                    if (++rejected <= MAX_REPORTED_REJECTS) {
+                        System.out.println(reject);
+                    }
+                }
+                rejected += chunk.rejectCount - chunk.rejects.size();
+            }
+            return new Result(imported, rejected, channel.size(), System.nanoTime() - started);
+        }
+    }
+
+    private static <T> T join(final ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // Chunk boundaries are moved forward to the byte after the next '\n'.
+    private List<long[]> split(final FileChannel channel) throws IOException {
+        long size = channel.size();
+        long target = size / Math.max(1, pool.getParallelism() * 4L);
+        long chunkBytes = Math.min(MAX_CHUNK_BYTES, Math.max(MIN_CHUNK_BYTES, target));
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + chunkBytes);
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                if (read <= 0) {
+                    end = size;
+                    break;
+                }
+                int newline = -1;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += read;
+            }
+            chunks.add(new long[]{start, Math.min(end, size)});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private Chunk<V> parse(final FileChannel channel, final long start, final long end, final boolean first) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        Chunk<V> chunk = new Chunk<>();
+        String[] header = codec.header();
+        try (CsvReader reader = new CsvReader(
+                new InputStreamReader(new MappedInputStream(mapped), StandardCharsets.UTF_8), CustomHashMap.CSV_BUFFER_SIZE)) {
+            boolean checkHeader = first;
+            while (reader.next()) {
+                if (checkHeader) {
+                    checkHeader = false;
+                    if (matches(reader, header)) {
+                        continue;
+                    }
+                }
+                try {
+                    chunk.values.add(codec.decode(reader));
+                } catch (IllegalArgumentException e) {
+                    if (++chunk.rejectCount <= MAX_REPORTED_REJECTS) {
+                        chunk.rejects.add("Rejected line " + reader.lineNumber() + " of chunk at byte " + start + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        return chunk;
+    }
+
+    private static boolean matches(final CsvReader record, final String[] header) {
+        if (record.fieldCount() != header.length) {
+            return false;
+        }
+        for (int i = 0; i < header.length; i++) {
+            if (!header[i].equals(record.field(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Chunk<V> {
+        private final List<V> values = new ArrayList<>();
+        private final List<String> rejects = new ArrayList<>();
+        private int rejectCount;
+    }
+
+    private static final class MappedInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        MappedInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+
+    // Summary of one import run.
+    static final class Result {
+        private final long imported;
+        private final long rejected;
+        private final long bytes;
+        private final long elapsedNanos;
+
+        Result(long imported, long rejected, long bytes, long elapsedNanos) {
+            this.imported = imported;
+            this.rejected = rejected;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getImported() { return imported; }
+        public long getRejected() { return rejected; }
+        public long getBytes() { return bytes; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : imported * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Imported " + imported + " record(s), rejected " + rejected + " line(s) in "
+                    + (elapsedNanos / 1_000_000) + " ms (" + Math.round(rowsPerSecond()) + " rows/sec).";
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package taskmanager;
+
+import java.util.*;
+
+// PriorityIndex Class
+// Task ids kept in priority order, ties broken by deadline and then id so the order is
+// total and paging is stable. Each mutation costs O(log n); a top-K read walks only K entries.
+class PriorityIndex {
+    private final NavigableSet<Key> ordered;
+    private final Map<String, Key> keysById;
+
+    public PriorityIndex() {
+        ordered = new TreeSet<>();
+        keysById = new HashMap<>();
+    }
+
+    public void add(final Task task) {
+        Key key = Key.of(task);
+        Key previous = keysById.put(task.getId(), key);
+        if (previous != null) {
+            ordered.remove(previous);
+        }
+        ordered.add(key);
+    }
+
+    public void remove(final String id) {
+        Key key = keysById.remove(id);
+        if (key != null) {
+            ordered.remove(key);
+        }
+    }
+
+    public void clear() {
+        ordered.clear();
+        keysById.clear();
+    }
+
+    public List<String> topK(final int k) {
+        return collect(ordered, k);
+    }
+
+    // The page that follows the given task as it was last seen; pass null for the first page.
+    public List<String> pageAfter(final Task lastSeen, final int limit) {
+        if (lastSeen == null) {
+            return collect(ordered, limit);
+        }
+        return collect(ordered.tailSet(Key.of(lastSeen), false), limit);
+    }
+
+    public List<String> idsInOrder() {
+        return collect(ordered, ordered.size());
+    }
+
+    private static List<String> collect(final Collection<Key> keys, final int limit) {
+        List<String> ids = new ArrayList<>(Math.max(0, Math.min(limit, keys.size())));
+        Iterator<Key> it = keys.iterator();
+        while (ids.size() < limit && it.hasNext()) {
+            ids.add(it.next().id);
+        }
+        return ids;
+    }
+
+    // Snapshot of the sort fields, so later edits to a Task cannot corrupt the tree order.
+    private static final class Key implements Comparable<Key> {
+        private final int priority;
+        private final long epochDay;
+        private final String id;
+
+        private Key(int priority, long epochDay, String id) {
+            this.priority = priority;
+            this.epochDay = epochDay;
+            this.id = id;
+        }
+
+        static Key of(final Task task) {
+            long epochDay = DeadlineIndex.epochDayOf(task.getDeadline());
+            // Malformed deadlines sort after every real date.
+            return new Key(task.getPriority(), epochDay == DeadlineIndex.MALFORMED ? Long.MAX_VALUE : epochDay, task.getId());
+        }
+
+        @Override
+        public int compareTo(final Key other) {
+            int byPriority = Integer.compare(priority, other.priority);
+            if (byPriority != 0) {
+                return byPriority;
+            }
+            int byDeadline = Long.compare(epochDay, other.epochDay);
+            if (byDeadline != 0) {
+                return byDeadline;
+            }
+            return id.compareTo(other.id);
+        }
+    }
+}
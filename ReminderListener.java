@@ -0,0 +1,10 @@
+package taskmanager;
+
+import java.time.Instant;
+
+// ReminderListener Interface
+// Receives reminders from ReminderScheduler when they fall due. Called on the scheduler's thread
+// (or the thread calling tick()), outside any scheduler or task store lock.
+interface ReminderListener {
+    void reminderDue(Task task, Instant dueAt);
+}
@@ -0,0 +1,398 @@
+package taskmanager;
+
+import java.io.Closeable;
+import java.time.*;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// ReminderScheduler Class
+// Fires task reminders at their due time using a hierarchical timing wheel. Time is cut into
+// ticks; level 0 has one slot per tick for the next 64 ticks, and each higher level has 64 slots
+// that each cover 64 times the span of a slot one level down. When level 0 wraps, the next slot
+// of the level above is cascaded down, so every reminder is moved at most once per level.
+// Scheduling and cancelling are O(1): a slot is a doubly linked list, and entries are found by task id.
+//
+// Time comes from the injected Clock. tick() fires everything due by the clock's current time,
+// so tests can drive the wheel deterministically with a ManualClock; start() runs tick() on a
+// background thread once per tick instead.
+class ReminderScheduler implements Closeable {
+    public static final Duration DEFAULT_TICK = Duration.ofSeconds(1);
+    // Returned by dueMillis for reminder text that is not a date or date-time.
+    public static final long UNSCHEDULED = Long.MIN_VALUE;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 8;
+    // Reminders further out than the wheel can hold are parked in the last slot of the top level.
+    private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+    private final Clock clock;
+    private final long tickMillis;
+    private final Entry[][] wheel;
+    private final int[] levelCounts;
+    private final Map<String, Entry> entries;
+    // Next tick to process; everything before it has already fired.
+    private long currentTick;
+    private volatile ReminderListener listener;
+
+    private final ReentrantLock lock;
+    private final Condition wakeUp;
+    private Thread worker;
+    private boolean closed;
+
+    public ReminderScheduler(Clock clock, Duration tick, ReminderListener listener) {
+        this.clock = clock;
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.wheel = new Entry[LEVELS][SLOTS];
+        this.levelCounts = new int[LEVELS];
+        this.entries = new HashMap<>();
+        this.currentTick = Math.floorDiv(clock.millis(), tickMillis);
+        this.listener = listener;
+        this.lock = new ReentrantLock();
+        this.wakeUp = lock.newCondition();
+    }
+
+    public void setListener(final ReminderListener listener) {
+        this.listener = listener;
+    }
+
+    public Clock getClock() {
+        return clock;
+    }
+
+    // Accepts "yyyy-MM-dd HH:mm[:ss]", "yyyy-MM-ddTHH:mm[:ss]" or "yyyy-MM-dd" (start of that day).
+    public static long dueMillis(final String reminder, final ZoneId zone) {
+        if (reminder == null) {
+            return UNSCHEDULED;
+        }
+        String text = reminder.trim();
+        try {
+            if (text.length() == 10) {
+                return LocalDate.parse(text).atStartOfDay(zone).toInstant().toEpochMilli();
+            }
+            return LocalDateTime.parse(text.replace(' ', 'T')).atZone(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return UNSCHEDULED;
+        }
+    }
+
+    // (Re)schedules the task's reminder, replacing any earlier one. Completed tasks and reminders
+    // that are not a date are cancelled instead. A reminder already in the past fires on the next tick.
+    public boolean schedule(final Task task) {
+        return schedule(task, true);
+    }
+
+    // Like schedule, but a reminder already in the past is dropped; used when reloading stored
+    // tasks, whose past reminders have already fired or are long stale.
+    public boolean restore(final Task task) {
+        return schedule(task, false);
+    }
+
+    // Swaps in a newer version of the task for a pending reminder without moving it, so edits that
+    // do not touch the reminder neither re-fire nor delay it.
+    public void refresh(final Task task) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(task.getId());
+            if (entry != null) {
+                entry.task = task;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean schedule(final Task task, final boolean firePast) {
+        long due = TaskManager.COMPLETED.equalsIgnoreCase(task.getStatus())
+                ? UNSCHEDULED : dueMillis(task.getReminder(), clock.getZone());
+        if (!firePast && due != UNSCHEDULED && due <= clock.millis()) {
+            due = UNSCHEDULED;
+        }
+        lock.lock();
+        try {
+            Entry entry = entries.remove(task.getId());
+            if (entry != null) {
+                unlink(entry);
+            }
+            if (due == UNSCHEDULED) {
+                return false;
+            }
+            entry = new Entry(task, due, Math.floorDiv(due + tickMillis - 1, tickMillis));
+            entries.put(task.getId(), entry);
+            place(entry);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean cancel(final String taskId) {
+        lock.lock();
+        try {
+            Entry entry = entries.remove(taskId);
+            if (entry == null) {
+                return false;
+            }
+            unlink(entry);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            for (Entry[] level : wheel) {
+                Arrays.fill(level, null);
+            }
+            Arrays.fill(levelCounts, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int pending() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Due time of the task's pending reminder, or null when none is scheduled.
+    public Instant dueAt(final String taskId) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(taskId);
+            return entry == null ? null : Instant.ofEpochMilli(entry.dueMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Advances the wheel to the clock's current time and fires every reminder that is due.
+    // Returns the number fired, including any whose listener threw.
+    public int tick() {
+        List<Entry> due = new ArrayList<>();
+        lock.lock();
+        try {
+            long nowTick = Math.floorDiv(clock.millis(), tickMillis);
+            while (currentTick <= nowTick) {
+                if (entries.isEmpty()) {
+                    currentTick = nowTick + 1;
+                    break;
+                }
+                int slot = (int) (currentTick & SLOT_MASK);
+                if (slot == 0) {
+                    cascade(currentTick);
+                }
+                if (levelCounts[0] == 0) {
+                    // Nothing in level 0 until it wraps, so jump straight to the next cascade point.
+                    currentTick = Math.min(nowTick + 1, (currentTick | SLOT_MASK) + 1);
+                    continue;
+                }
+                Entry entry = wheel[0][slot];
+                while (entry != null) {
+                    Entry next = entry.next;
+                    unlink(entry);
+                    entries.remove(entry.task.getId());
+                    due.add(entry);
+                    entry = next;
+                }
+                currentTick++;
+            }
+        } finally {
+            lock.unlock();
+        }
+        ReminderListener target = listener;
+        if (target != null) {
+            for (Entry entry : due) {
+                // The entries are already off the wheel, so one failing reminder must not drop the rest.
+                try {
+                    target.reminderDue(entry.task, Instant.ofEpochMilli(entry.dueMillis));
+                } catch (RuntimeException e) {
+                    System.out.println("Error delivering reminder for task " + entry.task.getId() + ": " + e.getMessage());
+                }
+            }
+        }
+        return due.size();
+    }
+
+    // Runs tick() on a daemon thread at every tick boundary until close().
+    public void start() {
+        lock.lock();
+        try {
+            if (worker != null || closed) {
+                return;
+            }
+            worker = new Thread(this::run, "reminder-scheduler");
+            worker.setDaemon(true);
+            worker.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread running;
+        lock.lock();
+        try {
+            closed = true;
+            running = worker;
+            wakeUp.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (running != null && running != Thread.currentThread()) {
+            try {
+                running.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                long wait = tickMillis - Math.floorMod(clock.millis(), tickMillis);
+                wakeUp.await(wait, TimeUnit.MILLISECONDS);
+                if (closed) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                tick();
+            } catch (RuntimeException e) {
+                System.out.println("Error delivering reminder: " + e.getMessage());
+            }
+        }
+    }
+
+    // Moves the entries of the higher-level slots that start at this tick down the wheel.
+    private void cascade(final long tick) {
+        for (int level = 1; level < LEVELS; level++) {
+            int slot = (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+            Entry entry = wheel[level][slot];
+            while (entry != null) {
+                Entry next = entry.next;
+                unlink(entry);
+                place(entry);
+                entry = next;
+            }
+            if (slot != 0) {
+                return;
+            }
+        }
+    }
+
+    private void place(final Entry entry) {
+        long expiry = Math.max(entry.expiryTick, currentTick);
+        long delta = expiry - currentTick;
+        if (delta > MAX_DELTA) {
+            delta = MAX_DELTA;
+            expiry = currentTick + MAX_DELTA;
+        }
+        int level = 0;
+        while (delta >= SLOTS && level < LEVELS - 1) {
+            delta >>>= SLOT_BITS;
+            level++;
+        }
+        int slot = (int) ((expiry >>> (SLOT_BITS * level)) & SLOT_MASK);
+        entry.level = level;
+        entry.slot = slot;
+        entry.prev = null;
+        entry.next = wheel[level][slot];
+        if (entry.next != null) {
+            entry.next.prev = entry;
+        }
+        wheel[level][slot] = entry;
+        levelCounts[level]++;
+    }
+
+    private void unlink(final Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            wheel[entry.level][entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        entry.prev = null;
+        entry.next = null;
+        levelCounts[entry.level]--;
+    }
+
+    private static final class Entry {
+        private Task task;
+        private final long dueMillis;
+        private final long expiryTick;
+        private int level;
+        private int slot;
+        private Entry prev;
+        private Entry next;
+
+        Entry(Task task, long dueMillis, long expiryTick) {
+            this.task = task;
+            this.dueMillis = dueMillis;
+            this.expiryTick = expiryTick;
+        }
+    }
+
+    // ReminderScheduler.ManualClock Class
+    // A clock that only moves when told to, for driving tick() deterministically.
+    static final class ManualClock extends Clock {
+        private final ZoneId zone;
+        private volatile long millis;
+
+        ManualClock(Instant start, ZoneId zone) {
+            this.millis = start.toEpochMilli();
+            this.zone = zone;
+        }
+
+        public void advance(final Duration duration) {
+            millis += duration.toMillis();
+        }
+
+        public void set(final Instant instant) {
+            millis = instant.toEpochMilli();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return new ManualClock(Instant.ofEpochMilli(millis), zone);
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package taskmanager;
+
+import java.time.*;
+import java.util.*;
+
+// ReminderSchedulerCheck Class
+// Drives ReminderScheduler with a ManualClock, one tick at a time, and checks that:
+//   every reminder fires on exactly the tick it is due, whichever wheel level it starts on,
+//     so the cascades from the higher levels move it down in time;
+//   a rescheduled reminder fires only at its new time, and a cancelled one never does;
+//   a listener that throws for one reminder does not keep the others due on that tick from firing.
+// Exits with status 1 on any failure.
+//
+// Usage: java taskmanager.ReminderSchedulerCheck
+final class ReminderSchedulerCheck {
+    private static final Instant START = Instant.parse("2030-01-01T00:00:00Z");
+    // Seconds ahead of START; together they land on levels 0 to 3 of the wheel.
+    private static final long[] OFFSETS = {1, 5, 63, 64, 65, 127, 4095, 4096, 4097, 70_000, 262_143, 262_145};
+
+    private ReminderSchedulerCheck() {
+    }
+
+    public static void main(String[] args) {
+        List<String> problems = new ArrayList<>();
+        checkDueTicks(problems);
+        checkRescheduleAndCancel(problems);
+        checkFailingListener(problems);
+        if (problems.isEmpty()) {
+            System.out.println("OK: reminders fire on their due tick through every cascade.");
+            return;
+        }
+        System.out.println("FAILED:");
+        problems.forEach(problem -> System.out.println("  " + problem));
+        System.exit(1);
+    }
+
+    private static void checkDueTicks(final List<String> problems) {
+        ReminderScheduler.ManualClock clock = new ReminderScheduler.ManualClock(START, ZoneOffset.UTC);
+        Map<String, Long> firedAt = new HashMap<>();
+        ReminderScheduler scheduler = new ReminderScheduler(clock, Duration.ofSeconds(1),
+                (task, dueAt) -> firedAt.put(task.getId(), clock.millis()));
+        for (long offset : OFFSETS) {
+            scheduler.schedule(task("r" + offset, offset));
+        }
+        long last = OFFSETS[OFFSETS.length - 1];
+        for (long second = 1; second <= last + 1; second++) {
+            clock.advance(Duration.ofSeconds(1));
+            scheduler.tick();
+        }
+        for (long offset : OFFSETS) {
+            Long fired = firedAt.get("r" + offset);
+            long due = START.plusSeconds(offset).toEpochMilli();
+            if (fired == null) {
+                problems.add("Reminder " + offset + "s ahead never fired.");
+            } else if (fired != due) {
+                problems.add("Reminder " + offset + "s ahead fired " + (fired - due) / 1000 + "s off its due time.");
+            }
+        }
+        if (scheduler.pending() != 0) {
+            problems.add(scheduler.pending() + " reminder(s) still pending after their due times.");
+        }
+    }
+
+    private static void checkRescheduleAndCancel(final List<String> problems) {
+        ReminderScheduler.ManualClock clock = new ReminderScheduler.ManualClock(START, ZoneOffset.UTC);
+        List<String> fired = new ArrayList<>();
+        ReminderScheduler scheduler = new ReminderScheduler(clock, Duration.ofSeconds(1),
+                (task, dueAt) -> fired.add(task.getId() + "@" + (clock.millis() - START.toEpochMilli()) / 1000));
+        scheduler.schedule(task("moved", 100));
+        scheduler.schedule(task("cancelled", 50));
+        scheduler.schedule(task("moved", 5000));
+        scheduler.cancel("cancelled");
+        for (int second = 1; second <= 5001; second++) {
+            clock.advance(Duration.ofSeconds(1));
+            scheduler.tick();
+        }
+        if (!fired.equals(Collections.singletonList("moved@5000"))) {
+            problems.add("Reschedule and cancel fired " + fired + ", expected [moved@5000].");
+        }
+    }
+
+    private static void checkFailingListener(final List<String> problems) {
+        ReminderScheduler.ManualClock clock = new ReminderScheduler.ManualClock(START, ZoneOffset.UTC);
+        Set<String> delivered = new HashSet<>();
+        ReminderScheduler scheduler = new ReminderScheduler(clock, Duration.ofSeconds(1), (task, dueAt) -> {
+            delivered.add(task.getId());
+            if (task.getId().equals("b")) {
+                throw new IllegalStateException("listener failed on purpose");
+            }
+        });
+        for (String id : new String[]{"a", "b", "c", "d"}) {
+            scheduler.schedule(task(id, 10));
+        }
+        clock.advance(Duration.ofSeconds(10));
+        int fired = scheduler.tick();
+        if (fired != 4 || delivered.size() != 4) {
+            problems.add("A failing listener let " + delivered.size() + " of 4 reminders through (tick reported " + fired + ").");
+        }
+    }
+
+    private static Task task(final String id, final long secondsAhead) {
+        String reminder = LocalDateTime.ofInstant(START.plusSeconds(secondsAhead), ZoneOffset.UTC).toString();
+        return Task.builder(id).name("reminder " + id).deadline("2030-12-31").status("Pending").priority(1)
+                .reminder(reminder).build();
+    }
+}
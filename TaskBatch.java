@@ -0,0 +1,243 @@
+package taskmanager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+// TaskBatch Class
+// An ordered list of task mutations for TaskManager.applyBatch. Mutations see the effect of the
+// ones before them, so a batch can add a task and then assign it. A batch is all-or-nothing: if
+// any mutation names a task that does not exist at that point, none of them is applied.
+// read() parses a batch from CSV rows, one mutation per row:
+//   add,id,name,deadline,status,priority[,assignedTo[,reminder]]
+//   edit,id,name,deadline,status,priority
+//   remove,id
+//   assign,id,username
+//   complete,id
+//   reminder,id[,reminder]          (no reminder clears it)
+class TaskBatch {
+    enum Kind { ADD, EDIT, REMOVE, ASSIGN, COMPLETE, SET_REMINDER }
+
+    enum Outcome {
+        APPLIED,
+        NOT_FOUND,
+        // Valid on its own, but not applied because another mutation failed or the batch was too
+        // large to log as one record.
+        ROLLED_BACK
+    }
+
+    static final class Mutation {
+        private final Kind kind;
+        private final String taskId;
+        // The task to add, or null.
+        private final Task task;
+        // The change to an existing task; null for ADD and REMOVE.
+        private final UnaryOperator<Task> change;
+
+        private Mutation(Kind kind, String taskId, Task task, UnaryOperator<Task> change) {
+            this.kind = kind;
+            this.taskId = taskId;
+            this.task = task;
+            this.change = change;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getTaskId() {
+            return taskId;
+        }
+
+        // The task's version after this mutation; null means removed.
+        Task apply(final Task current) {
+            if (kind == Kind.ADD) {
+                return task;
+            }
+            return change == null ? null : change.apply(current);
+        }
+    }
+
+    private final List<Mutation> mutations = new ArrayList<>();
+
+    // Adds the task, replacing any task with the same id, as addTask does.
+    public TaskBatch add(final Task task) {
+        return append(new Mutation(Kind.ADD, task.getId(), task, null));
+    }
+
+    public TaskBatch edit(final String taskId, final String name, final String deadline, final String status, final int priority) {
+        return append(new Mutation(Kind.EDIT, taskId, null, current -> current.toBuilder()
+                .name(name)
+                .deadline(deadline)
+                .status(status)
+                .priority(priority)
+                .build()));
+    }
+
+    public TaskBatch remove(final String taskId) {
+        return append(new Mutation(Kind.REMOVE, taskId, null, null));
+    }
+
+    public TaskBatch assign(final String taskId, final String username) {
+        return append(new Mutation(Kind.ASSIGN, taskId, null, current -> current.withAssignedTo(username)));
+    }
+
+    public TaskBatch complete(final String taskId) {
+        return append(new Mutation(Kind.COMPLETE, taskId, null, current -> current.withStatus(TaskManager.COMPLETED)));
+    }
+
+    public TaskBatch setReminder(final String taskId, final String reminder) {
+        return append(new Mutation(Kind.SET_REMINDER, taskId, null, current -> current.withReminder(reminder)));
+    }
+
+    public int size() {
+        return mutations.size();
+    }
+
+    public boolean isEmpty() {
+        return mutations.isEmpty();
+    }
+
+    Mutation get(final int index) {
+        return mutations.get(index);
+    }
+
+    // Throws IllegalArgumentException naming the line of the first bad row.
+    public static TaskBatch read(final Reader in) throws IOException {
+        TaskBatch batch = new TaskBatch();
+        try (CsvReader reader = new CsvReader(in, CustomHashMap.CSV_BUFFER_SIZE)) {
+            while (reader.next()) {
+                if (reader.isMalformed()) {
+                    throw new IllegalArgumentException("line " + reader.lineNumber() + ": unterminated quoted field.");
+                }
+                try {
+                    parseRow(reader, batch);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("line " + reader.lineNumber() + ": " + e.getMessage());
+                }
+            }
+        }
+        return batch;
+    }
+
+    private static void parseRow(final CsvReader row, final TaskBatch batch) {
+        String op = row.field(0) == null ? "" : row.field(0).trim().toLowerCase(Locale.ROOT);
+        switch (op) {
+            case "add":
+                expectFields(row, 6, 8);
+                batch.add(Task.builder(required(row, 1)).name(row.field(2)).deadline(row.field(3)).status(row.field(4))
+                        .priority(priority(row.field(5))).assignedTo(optional(row, 6)).reminder(optional(row, 7)).build());
+                break;
+            case "edit":
+                expectFields(row, 6, 6);
+                batch.edit(required(row, 1), row.field(2), row.field(3), row.field(4), priority(row.field(5)));
+                break;
+            case "remove":
+                expectFields(row, 2, 2);
+                batch.remove(required(row, 1));
+                break;
+            case "assign":
+                expectFields(row, 3, 3);
+                batch.assign(required(row, 1), required(row, 2));
+                break;
+            case "complete":
+                expectFields(row, 2, 2);
+                batch.complete(required(row, 1));
+                break;
+            case "reminder":
+                expectFields(row, 2, 3);
+                batch.setReminder(required(row, 1), optional(row, 2));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown change '" + row.field(0) + "'.");
+        }
+    }
+
+    private static void expectFields(final CsvReader row, final int min, final int max) {
+        if (row.fieldCount() < min || row.fieldCount() > max) {
+            throw new IllegalArgumentException(row.field(0) + " takes " + (min == max ? min : min + " to " + max) + " fields, not " + row.fieldCount() + ".");
+        }
+    }
+
+    private static String required(final CsvReader row, final int index) {
+        String value = row.field(index);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("missing task id or value in field " + (index + 1) + ".");
+        }
+        return value;
+    }
+
+    private static String optional(final CsvReader row, final int index) {
+        return index < row.fieldCount() ? row.field(index) : null;
+    }
+
+    private static int priority(final String value) {
+        try {
+            return Integer.parseInt(value == null ? "" : value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("priority must be an integer.");
+        }
+    }
+
+    private TaskBatch append(final Mutation mutation) {
+        mutations.add(mutation);
+        return this;
+    }
+
+    // TaskBatch.Result Class
+    // One outcome per mutation, in batch order, plus the task each one produced.
+    static final class Result {
+        private final boolean committed;
+        private final Outcome[] outcomes;
+        private final Task[] tasks;
+        private final String reason;
+
+        Result(boolean committed, Outcome[] outcomes, Task[] tasks, String reason) {
+            this.committed = committed;
+            this.outcomes = outcomes;
+            this.tasks = tasks;
+            this.reason = reason;
+        }
+
+        public boolean isCommitted() {
+            return committed;
+        }
+
+        // Why the batch was rolled back, or null.
+        public String getReason() {
+            return reason;
+        }
+
+        public int size() {
+            return outcomes.length;
+        }
+
+        public Outcome outcome(final int index) {
+            return outcomes[index];
+        }
+
+        // The task as this mutation left it, or as it was before a REMOVE. Null when not found.
+        public Task task(final int index) {
+            return tasks[index];
+        }
+
+        public int count(final Outcome outcome) {
+            int count = 0;
+            for (Outcome o : outcomes) {
+                if (o == outcome) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            if (committed) {
+                return "Batch applied: " + outcomes.length + " change(s).";
+            }
+            return "Batch rolled back, nothing changed: " + reason;
+        }
+    }
+}
@@ -0,0 +1,533 @@
+package taskmanager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+// TaskBitmap Class
+// Compressed set of task ordinals, laid out like a Roaring bitmap. Ordinals are split by their
+// high 16 bits into chunks of 65536. A chunk with up to 4096 members is a sorted char[]; a denser
+// chunk is a 1024-word bitset. Both cost at most about 2 bytes per member, and a chunk with no
+// members costs nothing.
+// The *With operations modify this bitmap and never the argument, so bitmaps owned by an index
+// can be combined into a fresh result safely by readers.
+class TaskBitmap {
+    private static final int ARRAY_LIMIT = 4096;
+
+    private int[] keys;
+    private Container[] containers;
+    private int size;
+
+    public TaskBitmap() {
+        keys = new int[4];
+        containers = new Container[4];
+    }
+
+    public void add(final int ordinal) {
+        int key = ordinal >>> 16;
+        int at = Arrays.binarySearch(keys, 0, size, key);
+        if (at >= 0) {
+            containers[at] = containers[at].add((char) ordinal);
+        } else {
+            insert(-at - 1, key, new ArrayContainer().add((char) ordinal));
+        }
+    }
+
+    public void remove(final int ordinal) {
+        int at = Arrays.binarySearch(keys, 0, size, ordinal >>> 16);
+        if (at >= 0) {
+            containers[at] = containers[at].remove((char) ordinal);
+            if (containers[at].cardinality() == 0) {
+                delete(at);
+            }
+        }
+    }
+
+    public boolean contains(final int ordinal) {
+        int at = Arrays.binarySearch(keys, 0, size, ordinal >>> 16);
+        return at >= 0 && containers[at].contains((char) ordinal);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public TaskBitmap copy() {
+        TaskBitmap copy = new TaskBitmap();
+        copy.keys = Arrays.copyOf(keys, Math.max(size, 4));
+        copy.containers = new Container[copy.keys.length];
+        for (int i = 0; i < size; i++) {
+            copy.containers[i] = containers[i].copy();
+        }
+        copy.size = size;
+        return copy;
+    }
+
+    public void clear() {
+        Arrays.fill(containers, null);
+        size = 0;
+    }
+
+    public TaskBitmap andWith(final TaskBitmap other) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int at = Arrays.binarySearch(other.keys, 0, other.size, keys[i]);
+            if (at >= 0) {
+                Container result = containers[i].andWith(other.containers[at]);
+                if (result.cardinality() > 0) {
+                    keys[kept] = keys[i];
+                    containers[kept++] = result;
+                }
+            }
+        }
+        Arrays.fill(containers, kept, size, null);
+        size = kept;
+        return this;
+    }
+
+    // AND with the union of several bitmaps, without building the union. Only the chunks this
+    // bitmap still has are looked at, and a sparse chunk just checks its members one by one.
+    public TaskBitmap andWithAny(final List<TaskBitmap> others) {
+        if (others.size() == 1) {
+            return andWith(others.get(0));
+        }
+        int kept = 0;
+        Container[] found = new Container[others.size()];
+        for (int i = 0; i < size; i++) {
+            int count = 0;
+            for (TaskBitmap other : others) {
+                int at = Arrays.binarySearch(other.keys, 0, other.size, keys[i]);
+                if (at >= 0) {
+                    found[count++] = other.containers[at];
+                }
+            }
+            Container result;
+            if (count == 0) {
+                continue;
+            } else if (count == 1) {
+                result = containers[i].andWith(found[0]);
+            } else if (containers[i] instanceof ArrayContainer) {
+                result = ((ArrayContainer) containers[i]).retainAny(found, count);
+            } else {
+                Container union = found[0].copy();
+                for (int j = 1; j < count; j++) {
+                    union = union.orWith(found[j]);
+                }
+                result = containers[i].andWith(union);
+            }
+            if (result.cardinality() > 0) {
+                keys[kept] = keys[i];
+                containers[kept++] = result;
+            }
+        }
+        Arrays.fill(containers, kept, size, null);
+        size = kept;
+        return this;
+    }
+
+    public TaskBitmap orWith(final TaskBitmap other) {
+        for (int j = 0; j < other.size; j++) {
+            int at = Arrays.binarySearch(keys, 0, size, other.keys[j]);
+            if (at >= 0) {
+                containers[at] = containers[at].orWith(other.containers[j]);
+            } else {
+                insert(-at - 1, other.keys[j], other.containers[j].copy());
+            }
+        }
+        return this;
+    }
+
+    public TaskBitmap andNotWith(final TaskBitmap other) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int at = Arrays.binarySearch(other.keys, 0, other.size, keys[i]);
+            Container result = at >= 0 ? containers[i].andNotWith(other.containers[at]) : containers[i];
+            if (result.cardinality() > 0) {
+                keys[kept] = keys[i];
+                containers[kept++] = result;
+            }
+        }
+        Arrays.fill(containers, kept, size, null);
+        size = kept;
+        return this;
+    }
+
+    // Size of the intersection, without building it.
+    public long andCardinality(final TaskBitmap other) {
+        long cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i++].andCardinality(other.containers[j++]);
+            }
+        }
+        return cardinality;
+    }
+
+    // Visits the members in ascending order.
+    public void forEach(final IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    private void insert(final int at, final int key, final Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, size - at);
+        System.arraycopy(containers, at, containers, at + 1, size - at);
+        keys[at] = key;
+        containers[at] = container;
+        size++;
+    }
+
+    private void delete(final int at) {
+        System.arraycopy(keys, at + 1, keys, at, size - at - 1);
+        System.arraycopy(containers, at + 1, containers, at, size - at - 1);
+        containers[--size] = null;
+    }
+
+    // Mutators return the container that now holds the chunk, which may be a converted one.
+    private abstract static class Container {
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container copy();
+
+        abstract Container andWith(Container other);
+
+        abstract Container orWith(Container other);
+
+        abstract Container andNotWith(Container other);
+
+        abstract int andCardinality(Container other);
+
+        abstract void forEach(int base, IntConsumer action);
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int size;
+
+        ArrayContainer() {
+            values = new char[4];
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        Container add(final char value) {
+            if (size > 0 && values[size - 1] < value) {
+                return append(value);
+            }
+            int at = Arrays.binarySearch(values, 0, size, value);
+            if (at >= 0) {
+                return this;
+            }
+            if (size == ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            at = -at - 1;
+            grow();
+            System.arraycopy(values, at, values, at + 1, size - at);
+            values[at] = value;
+            size++;
+            return this;
+        }
+
+        private Container append(final char value) {
+            if (size == ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            grow();
+            values[size++] = value;
+            return this;
+        }
+
+        @Override
+        Container remove(final char value) {
+            int at = Arrays.binarySearch(values, 0, size, value);
+            if (at >= 0) {
+                System.arraycopy(values, at + 1, values, at, size - at - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(final char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 4)), size);
+        }
+
+        @Override
+        Container andWith(final Container other) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i])) {
+                    values[kept++] = values[i];
+                }
+            }
+            size = kept;
+            return this;
+        }
+
+        @Override
+        Container orWith(final Container other) {
+            if (other instanceof BitmapContainer) {
+                Container result = other.copy();
+                for (int i = 0; i < size; i++) {
+                    result = result.add(values[i]);
+                }
+                return result;
+            }
+            ArrayContainer that = (ArrayContainer) other;
+            char[] merged = new char[size + that.size];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size && j < that.size) {
+                char a = values[i];
+                char b = that.values[j];
+                merged[n++] = a <= b ? a : b;
+                if (a <= b) {
+                    i++;
+                }
+                if (b <= a) {
+                    j++;
+                }
+            }
+            while (i < size) {
+                merged[n++] = values[i++];
+            }
+            while (j < that.size) {
+                merged[n++] = that.values[j++];
+            }
+            ArrayContainer result = new ArrayContainer(merged, n);
+            return n > ARRAY_LIMIT ? result.toBitmap() : result;
+        }
+
+        Container retainAny(final Container[] others, final int count) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < count; j++) {
+                    if (others[j].contains(values[i])) {
+                        values[kept++] = values[i];
+                        break;
+                    }
+                }
+            }
+            size = kept;
+            return this;
+        }
+
+        @Override
+        Container andNotWith(final Container other) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (!other.contains(values[i])) {
+                    values[kept++] = values[i];
+                }
+            }
+            size = kept;
+            return this;
+        }
+
+        @Override
+        int andCardinality(final Container other) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        void forEach(final int base, final IntConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(base | values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.words[values[i] >>> 6] |= 1L << values[i];
+            }
+            bitmap.cardinality = size;
+            return bitmap;
+        }
+
+        private void grow() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, size * 2)));
+            }
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words = new long[1024];
+        private int cardinality;
+
+        @Override
+        Container add(final char value) {
+            long before = words[value >>> 6];
+            long after = before | (1L << value);
+            words[value >>> 6] = after;
+            if (before != after) {
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(final char value) {
+            long before = words[value >>> 6];
+            long after = before & ~(1L << value);
+            words[value >>> 6] = after;
+            if (before != after) {
+                cardinality--;
+            }
+            // Shrinking only well below the limit keeps a chunk hovering around 4096 members
+            // from converting back and forth on every add and remove.
+            return cardinality <= ARRAY_LIMIT / 2 ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(final char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container copy() {
+            BitmapContainer copy = new BitmapContainer();
+            System.arraycopy(words, 0, copy.words, 0, words.length);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        Container andWith(final Container other) {
+            if (other instanceof ArrayContainer) {
+                ArrayContainer result = (ArrayContainer) other.copy();
+                return result.andWith(this);
+            }
+            long[] those = ((BitmapContainer) other).words;
+            for (int i = 0; i < words.length; i++) {
+                words[i] &= those[i];
+            }
+            return recount();
+        }
+
+        @Override
+        Container orWith(final Container other) {
+            if (other instanceof ArrayContainer) {
+                ArrayContainer that = (ArrayContainer) other;
+                for (int i = 0; i < that.size; i++) {
+                    add(that.values[i]);
+                }
+                return this;
+            }
+            long[] those = ((BitmapContainer) other).words;
+            for (int i = 0; i < words.length; i++) {
+                words[i] |= those[i];
+            }
+            return recount();
+        }
+
+        @Override
+        Container andNotWith(final Container other) {
+            if (other instanceof ArrayContainer) {
+                ArrayContainer that = (ArrayContainer) other;
+                for (int i = 0; i < that.size; i++) {
+                    words[that.values[i] >>> 6] &= ~(1L << that.values[i]);
+                }
+            } else {
+                long[] those = ((BitmapContainer) other).words;
+                for (int i = 0; i < words.length; i++) {
+                    words[i] &= ~those[i];
+                }
+            }
+            return recount();
+        }
+
+        @Override
+        int andCardinality(final Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.andCardinality(this);
+            }
+            long[] those = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                count += Long.bitCount(words[i] & those[i]);
+            }
+            return count;
+        }
+
+        @Override
+        void forEach(final int base, final IntConsumer action) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private Container recount() {
+            int count = 0;
+            for (long word : words) {
+                count += Long.bitCount(word);
+            }
+            cardinality = count;
+            return count <= ARRAY_LIMIT ? toArray() : this;
+        }
+
+        private Container toArray() {
+            char[] values = new char[Math.max(cardinality, 4)];
+            int[] n = {0};
+            forEach(0, value -> values[n[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+    }
+}
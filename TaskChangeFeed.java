@@ -0,0 +1,270 @@
+package taskmanager;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+// TaskChangeFeed Class
+// Change-data-capture stream of task mutations. TaskManager publishes one event per stored change,
+// in apply order, with sequence numbers 1, 2, 3, ... into a fixed ring of the most recent events.
+// Consumers subscribe from a sequence number and pull events at their own pace, so a cache or a
+// dashboard can stay current by applying changes instead of re-reading every task.
+//
+// There is one publisher at a time, because TaskManager publishes under its write lock. Reading is
+// lock-free: events are immutable and each ring slot is written with a volatile store, so a reader
+// that finds the sequence number it wants in a slot has the whole event. If the slot already holds
+// a later event, the reader has fallen a whole ring behind and poll() throws MissedEventsException.
+// The consumer then reloads all tasks, and resubscribes from the sequence it had when it started
+// the reload.
+//
+// A gating subscription adds backpressure: the publisher waits rather than overwrite an event that
+// subscription has not read, so it never misses events, and writers slow down to its pace. Because
+// writers wait while holding the store lock, a gating subscriber that stops reading for longer
+// than maxStall is detached. After that it behaves like any other subscription and may miss events.
+class TaskChangeFeed {
+    static final int DEFAULT_CAPACITY = 1 << 16;
+    static final long DEFAULT_MAX_STALL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    enum Kind {
+        ADDED,
+        UPDATED,
+        REMOVED,
+        // The store was reloaded wholesale (snapshot, CSV import, log recovery); re-read every task.
+        RESET
+    }
+
+    // TaskChangeFeed.Event Class
+    // previous is null for ADDED and task is null for REMOVED; both are null for RESET.
+    static final class Event {
+        private final long sequence;
+        private final Kind kind;
+        private final Task previous;
+        private final Task task;
+
+        Event(long sequence, Kind kind, Task previous, Task task) {
+            this.sequence = sequence;
+            this.kind = kind;
+            this.previous = previous;
+            this.task = task;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public Task getPrevious() {
+            return previous;
+        }
+
+        public Task getTask() {
+            return task;
+        }
+
+        public String getTaskId() {
+            return task != null ? task.getId() : previous != null ? previous.getId() : null;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + sequence + " " + kind + (getTaskId() == null ? "" : " " + getTaskId());
+        }
+    }
+
+    // Thrown by poll() when the events a subscription needs next were overwritten.
+    static final class MissedEventsException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+        private final long wanted;
+        private final long oldestAvailable;
+
+        MissedEventsException(long wanted, long oldestAvailable) {
+            super("Events " + wanted + " to " + (oldestAvailable - 1) + " are no longer in the feed; reload all tasks and resubscribe.");
+            this.wanted = wanted;
+            this.oldestAvailable = oldestAvailable;
+        }
+
+        public long getWanted() {
+            return wanted;
+        }
+
+        public long getOldestAvailable() {
+            return oldestAvailable;
+        }
+    }
+
+    private final AtomicReferenceArray<Event> ring;
+    private final int mask;
+    private final long maxStallNanos;
+    // Sequence of the newest event; 0 before the first.
+    private volatile long published;
+    private final List<Subscription> gating = new CopyOnWriteArrayList<>();
+    // Consumers blocked in await() sleep on this; the publisher only takes the lock when there are any.
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition arrived = waitLock.newCondition();
+    private volatile int waiting;
+
+    public TaskChangeFeed() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_STALL_NANOS);
+    }
+
+    // Capacity is rounded up to a power of two.
+    public TaskChangeFeed(final int capacity, final long maxStallNanos) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.maxStallNanos = maxStallNanos;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    // Sequence number of the newest event, or 0 if there is none yet.
+    public long lastSequence() {
+        return published;
+    }
+
+    // The oldest sequence number still in the ring.
+    public long oldestSequence() {
+        return Math.max(1, published - mask);
+    }
+
+    // Called by TaskManager inside its write lock, so there is never more than one publisher.
+    long publish(final Kind kind, final Task previous, final Task task) {
+        long sequence = published + 1;
+        if (!gating.isEmpty()) {
+            awaitGatingSubscribers(sequence);
+        }
+        ring.set((int) sequence & mask, new Event(sequence, kind, previous, task));
+        published = sequence;
+        if (waiting > 0) {
+            waitLock.lock();
+            try {
+                arrived.signalAll();
+            } finally {
+                waitLock.unlock();
+            }
+        }
+        return sequence;
+    }
+
+    // Waits until every gating subscription has read the event the new one will overwrite.
+    private void awaitGatingSubscribers(final long sequence) {
+        long overwritten = sequence - capacity();
+        for (Subscription subscription : gating) {
+            long started = System.nanoTime();
+            long pause = 1_000;
+            while (subscription.next <= overwritten && !subscription.closed) {
+                if (System.nanoTime() - started > maxStallNanos) {
+                    gating.remove(subscription);
+                    break;
+                }
+                LockSupport.parkNanos(pause);
+                pause = Math.min(pause * 2, 1_000_000);
+            }
+        }
+    }
+
+    // Starts at the given sequence; lastSequence() + 1 means "only events from now on".
+    public Subscription subscribe(final long fromSequence) {
+        return subscribe(fromSequence, false);
+    }
+
+    public Subscription subscribe(final long fromSequence, final boolean gatePublisher) {
+        Subscription subscription = new Subscription(Math.max(1, fromSequence));
+        if (gatePublisher) {
+            gating.add(subscription);
+        }
+        return subscription;
+    }
+
+    // Events from the given sequence on, at most max of them, without blocking.
+    public List<Event> read(final long fromSequence, final int max) {
+        long from = Math.max(1, fromSequence);
+        long last = published;
+        if (from > last || max <= 0) {
+            return Collections.emptyList();
+        }
+        long to = Math.min(last, from + max - 1);
+        List<Event> events = new ArrayList<>((int) (to - from + 1));
+        for (long sequence = from; sequence <= to; sequence++) {
+            Event event = ring.get((int) sequence & mask);
+            if (event == null || event.sequence != sequence) {
+                throw new MissedEventsException(sequence, oldestSequence());
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    // Blocks until an event at or after the given sequence exists, or the timeout passes. Returns
+    // whether one does.
+    public boolean await(final long sequence, final long timeout, final TimeUnit unit) throws InterruptedException {
+        if (published >= sequence) {
+            return true;
+        }
+        long remaining = unit.toNanos(timeout);
+        waitLock.lock();
+        try {
+            waiting++;
+            while (published < sequence && remaining > 0) {
+                remaining = arrived.awaitNanos(remaining);
+            }
+            return published >= sequence;
+        } finally {
+            waiting--;
+            waitLock.unlock();
+        }
+    }
+
+    // TaskChangeFeed.Subscription Class
+    // A read position in the feed. Use it from one consumer thread.
+    final class Subscription implements AutoCloseable {
+        private volatile long next;
+        private volatile boolean closed;
+
+        private Subscription(long next) {
+            this.next = next;
+        }
+
+        // Sequence number of the next event this subscription will return.
+        public long nextSequence() {
+            return next;
+        }
+
+        // Whether the publisher still waits for this subscription; false after close() or a stall.
+        public boolean isGating() {
+            return gating.contains(this);
+        }
+
+        // Up to max events, without blocking; empty when caught up.
+        public List<Event> poll(final int max) {
+            List<Event> events = read(next, max);
+            if (!events.isEmpty()) {
+                next = events.get(events.size() - 1).sequence + 1;
+            }
+            return events;
+        }
+
+        // Like poll, but waits up to the timeout for the first event.
+        public List<Event> poll(final int max, final long timeout, final TimeUnit unit) throws InterruptedException {
+            if (!await(next, timeout, unit)) {
+                return Collections.emptyList();
+            }
+            return poll(max);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            gating.remove(this);
+        }
+    }
+}
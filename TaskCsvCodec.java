@@ -0,0 +1,58 @@
+package taskmanager;
+
+import java.io.IOException;
+
+// TaskCsvCodec Class
+// All seven Task fields in a fixed column order. Null assignee/reminder are written as empty fields.
+class TaskCsvCodec implements CsvCodec<Task> {
+    private static final String[] HEADER = {"id", "name", "deadline", "status", "priority", "assignedTo", "reminder"};
+
+    @Override
+    public String[] header() {
+        return HEADER.clone();
+    }
+
+    @Override
+    public void encode(final Task task, final CsvWriter writer) throws IOException {
+        writer.writeField(task.getId());
+        writer.writeField(task.getName());
+        writer.writeField(task.getDeadline());
+        writer.writeField(task.getStatus());
+        writer.writeField(task.getPriority());
+        writer.writeField(task.getAssignedTo());
+        writer.writeField(task.getReminder());
+        writer.endRecord();
+    }
+
+    @Override
+    public Task decode(final CsvReader record) {
+        if (record.isMalformed()) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        if (record.fieldCount() != HEADER.length) {
+            throw new IllegalArgumentException("expected " + HEADER.length + " fields but found " + record.fieldCount());
+        }
+        String id = record.field(0);
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("missing task id");
+        }
+        String priority = record.field(4);
+        if (priority == null) {
+            throw new IllegalArgumentException("missing priority");
+        }
+        final int parsedPriority;
+        try {
+            parsedPriority = Integer.parseInt(priority);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("priority '" + priority + "' is not a number");
+        }
+        return Task.builder(id)
+                .name(record.field(1))
+                .deadline(record.field(2))
+                .status(record.field(3))
+                .priority(parsedPriority)
+                .assignedTo(record.field(5))
+                .reminder(record.field(6))
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package taskmanager;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// TaskFilter Class
+// A compound task query: each criterion that is set narrows the result, and a criterion listing
+// several values accepts any of them. For example, open tasks of priority 1-2 assigned to alice
+// and due this week:
+//   new TaskFilter().status("Open").priorityAtMost(2).assignedTo("alice").dueBetween(monday, sunday)
+// Evaluated by TaskFilterIndex as bitmap AND / OR / ANDNOT.
+class TaskFilter {
+    private final Set<String> statuses = new LinkedHashSet<>();
+    private final Set<String> excludedStatuses = new LinkedHashSet<>();
+    private final Set<String> assignees = new LinkedHashSet<>();
+    private boolean unassigned;
+    private int minPriority = Integer.MIN_VALUE;
+    private int maxPriority = Integer.MAX_VALUE;
+    private LocalDate dueFrom;
+    private LocalDate dueTo;
+    private Boolean hasReminder;
+
+    public TaskFilter status(final String... values) {
+        for (String value : values) {
+            statuses.add(value.toLowerCase(Locale.ROOT));
+        }
+        return this;
+    }
+
+    public TaskFilter notStatus(final String... values) {
+        for (String value : values) {
+            excludedStatuses.add(value.toLowerCase(Locale.ROOT));
+        }
+        return this;
+    }
+
+    public TaskFilter assignedTo(final String... usernames) {
+        assignees.addAll(Arrays.asList(usernames));
+        return this;
+    }
+
+    // Combined with assignedTo, accepts unassigned tasks as well as the named users'.
+    public TaskFilter unassigned() {
+        unassigned = true;
+        return this;
+    }
+
+    public TaskFilter priorityBetween(final int min, final int max) {
+        minPriority = min;
+        maxPriority = max;
+        return this;
+    }
+
+    public TaskFilter priorityAtMost(final int max) {
+        maxPriority = max;
+        return this;
+    }
+
+    // Inclusive; tasks without a valid deadline never match a date range.
+    public TaskFilter dueBetween(final LocalDate from, final LocalDate to) {
+        dueFrom = from;
+        dueTo = to;
+        return this;
+    }
+
+    public TaskFilter hasReminder(final boolean value) {
+        hasReminder = value;
+        return this;
+    }
+
+    Set<String> statuses() {
+        return statuses;
+    }
+
+    Set<String> excludedStatuses() {
+        return excludedStatuses;
+    }
+
+    Set<String> assignees() {
+        return assignees;
+    }
+
+    boolean includesUnassigned() {
+        return unassigned;
+    }
+
+    boolean filtersAssignee() {
+        return unassigned || !assignees.isEmpty();
+    }
+
+    boolean filtersPriority() {
+        return minPriority != Integer.MIN_VALUE || maxPriority != Integer.MAX_VALUE;
+    }
+
+    int minPriority() {
+        return minPriority;
+    }
+
+    int maxPriority() {
+        return maxPriority;
+    }
+
+    LocalDate dueFrom() {
+        return dueFrom;
+    }
+
+    LocalDate dueTo() {
+        return dueTo;
+    }
+
+    Boolean reminder() {
+        return hasReminder;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner criteria = new StringJoiner(", ");
+        if (!statuses.isEmpty()) {
+            criteria.add("status in " + statuses);
+        }
+        if (!excludedStatuses.isEmpty()) {
+            criteria.add("status not in " + excludedStatuses);
+        }
+        if (filtersPriority()) {
+            criteria.add("priority " + (minPriority == Integer.MIN_VALUE ? "" : minPriority) + ".."
+                    + (maxPriority == Integer.MAX_VALUE ? "" : maxPriority));
+        }
+        if (filtersAssignee()) {
+            criteria.add("assigned to " + assignees + (unassigned ? " or nobody" : ""));
+        }
+        if (dueFrom != null || dueTo != null) {
+            criteria.add("due " + (dueFrom == null ? "" : dueFrom) + ".." + (dueTo == null ? "" : dueTo));
+        }
+        if (hasReminder != null) {
+            criteria.add(hasReminder ? "with reminder" : "without reminder");
+        }
+        return criteria.length() == 0 ? "all tasks" : criteria.toString();
+    }
+}
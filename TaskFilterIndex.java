@@ -0,0 +1,328 @@
+package taskmanager;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// TaskFilterIndex Class
+// One TaskBitmap per value of each filterable attribute (status, priority, assignee, deadline day
+// and month, has-reminder), over TaskOrdinals numbers. A TaskFilter is answered by AND-ing its
+// criteria smallest first, each criterion being the union of the bitmaps of the values it accepts,
+// and then AND-NOT-ing the exclusions. Only the smallest criterion's union is built; the others are
+// probed chunk by chunk. Tasks are never visited, so the cost follows the bitmap sizes and not the
+// store. A count-only query skips building the final bitmap.
+// Date ranges use whole-month bitmaps where they can, so a year costs about 12 ORs, not 365.
+class TaskFilterIndex {
+    private final TaskBitmap all;
+    private final Map<String, TaskBitmap> byStatus;
+    private final NavigableMap<Integer, TaskBitmap> byPriority;
+    private final Map<String, TaskBitmap> byAssignee;
+    private final TaskBitmap unassigned;
+    private final NavigableMap<Long, TaskBitmap> byDueDay;
+    // Keyed by the epoch day of the first of the month.
+    private final NavigableMap<Long, TaskBitmap> byDueMonth;
+    private final TaskBitmap withReminder;
+
+    public TaskFilterIndex() {
+        all = new TaskBitmap();
+        byStatus = new HashMap<>();
+        byPriority = new TreeMap<>();
+        byAssignee = new HashMap<>();
+        unassigned = new TaskBitmap();
+        byDueDay = new TreeMap<>();
+        byDueMonth = new TreeMap<>();
+        withReminder = new TaskBitmap();
+    }
+
+    public void add(final int ordinal, final Task task) {
+        all.add(ordinal);
+        addTo(byStatus, fold(task.getStatus()), ordinal);
+        addTo(byPriority, task.getPriority(), ordinal);
+        addAssignee(task.getAssignedTo(), ordinal);
+        addDue(dueDay(task), ordinal);
+        if (task.getReminder() != null) {
+            withReminder.add(ordinal);
+        }
+    }
+
+    public void remove(final int ordinal, final Task task) {
+        all.remove(ordinal);
+        removeFrom(byStatus, fold(task.getStatus()), ordinal);
+        removeFrom(byPriority, task.getPriority(), ordinal);
+        removeAssignee(task.getAssignedTo(), ordinal);
+        removeDue(dueDay(task), ordinal);
+        withReminder.remove(ordinal);
+    }
+
+    // Touches only the bitmaps of attributes that changed.
+    public void update(final int ordinal, final Task previous, final Task updated) {
+        String oldStatus = previous.getStatus() == updated.getStatus() ? null : fold(previous.getStatus());
+        String newStatus = previous.getStatus() == updated.getStatus() ? null : fold(updated.getStatus());
+        if (!Objects.equals(oldStatus, newStatus)) {
+            removeFrom(byStatus, oldStatus, ordinal);
+            addTo(byStatus, newStatus, ordinal);
+        }
+        if (previous.getPriority() != updated.getPriority()) {
+            removeFrom(byPriority, previous.getPriority(), ordinal);
+            addTo(byPriority, updated.getPriority(), ordinal);
+        }
+        if (!Objects.equals(previous.getAssignedTo(), updated.getAssignedTo())) {
+            removeAssignee(previous.getAssignedTo(), ordinal);
+            addAssignee(updated.getAssignedTo(), ordinal);
+        }
+        Long oldDay = dueDay(previous);
+        Long newDay = dueDay(updated);
+        if (!Objects.equals(oldDay, newDay)) {
+            removeDue(oldDay, ordinal);
+            addDue(newDay, ordinal);
+        }
+        if (updated.getReminder() != null) {
+            withReminder.add(ordinal);
+        } else {
+            withReminder.remove(ordinal);
+        }
+    }
+
+    public void clear() {
+        all.clear();
+        byStatus.clear();
+        byPriority.clear();
+        byAssignee.clear();
+        unassigned.clear();
+        byDueDay.clear();
+        byDueMonth.clear();
+        withReminder.clear();
+    }
+
+    // A new bitmap the caller owns.
+    public TaskBitmap evaluate(final TaskFilter filter) {
+        Plan plan = plan(filter);
+        TaskBitmap result = plan.intersect(plan.clauses.size());
+        if (!plan.owned) {
+            result = result.copy();
+        }
+        for (TaskBitmap exclusion : plan.exclusions) {
+            result.andNotWith(exclusion);
+        }
+        return result;
+    }
+
+    // The last AND or ANDNOT is only counted: |R and X| or |R| - |R and X|. The bitmaps of one
+    // criterion never overlap (a task has one status, one priority and so on), so |R and (X1 or X2)|
+    // is |R and X1| + |R and X2|.
+    public long count(final TaskFilter filter) {
+        Plan plan = plan(filter);
+        int clauses = plan.clauses.size();
+        if (plan.exclusions.isEmpty()) {
+            if (clauses == 0) {
+                return all.cardinality();
+            }
+            if (clauses == 1) {
+                return cardinality(plan.clauses.get(0));
+            }
+            TaskBitmap result = plan.intersect(clauses - 1);
+            long count = 0;
+            for (TaskBitmap accepted : plan.clauses.get(clauses - 1)) {
+                count += result.andCardinality(accepted);
+            }
+            return count;
+        }
+        TaskBitmap result = plan.intersect(clauses);
+        List<TaskBitmap> exclusions = plan.exclusions;
+        if (exclusions.size() > 1) {
+            if (!plan.owned) {
+                result = result.copy();
+            }
+            for (TaskBitmap exclusion : exclusions.subList(0, exclusions.size() - 1)) {
+                result.andNotWith(exclusion);
+            }
+        }
+        return result.cardinality() - result.andCardinality(exclusions.get(exclusions.size() - 1));
+    }
+
+    private Plan plan(final TaskFilter filter) {
+        Plan plan = new Plan();
+        if (!filter.statuses().isEmpty()) {
+            List<TaskBitmap> accepted = new ArrayList<>();
+            for (String status : filter.statuses()) {
+                accepted.add(byStatus.get(status));
+            }
+            plan.require(accepted);
+        }
+        if (filter.filtersPriority()) {
+            plan.require(filter.minPriority() > filter.maxPriority() ? Collections.emptyList()
+                    : byPriority.subMap(filter.minPriority(), true, filter.maxPriority(), true).values());
+        }
+        if (filter.filtersAssignee()) {
+            List<TaskBitmap> accepted = new ArrayList<>();
+            for (String assignee : filter.assignees()) {
+                accepted.add(byAssignee.get(assignee));
+            }
+            if (filter.includesUnassigned()) {
+                accepted.add(unassigned);
+            }
+            plan.require(accepted);
+        }
+        if (filter.dueFrom() != null || filter.dueTo() != null) {
+            plan.require(dueBetween(filter.dueFrom() == null ? Long.MIN_VALUE : filter.dueFrom().toEpochDay(),
+                    filter.dueTo() == null ? Long.MAX_VALUE : filter.dueTo().toEpochDay()));
+        }
+        if (Boolean.TRUE.equals(filter.reminder())) {
+            plan.require(Collections.singletonList(withReminder));
+        } else if (Boolean.FALSE.equals(filter.reminder())) {
+            plan.exclusions.add(withReminder);
+        }
+        for (String status : filter.excludedStatuses()) {
+            TaskBitmap excluded = byStatus.get(status);
+            if (excluded != null) {
+                plan.exclusions.add(excluded);
+            }
+        }
+        plan.clauses.sort(Comparator.comparingLong(TaskFilterIndex::cardinality));
+        return plan;
+    }
+
+    // Whole months inside the range come from byDueMonth, the ragged ends from byDueDay.
+    private List<TaskBitmap> dueBetween(final long from, final long to) {
+        List<TaskBitmap> accepted = new ArrayList<>();
+        if (byDueDay.isEmpty()) {
+            return accepted;
+        }
+        long day = Math.max(from, byDueDay.firstKey());
+        long last = Math.min(to, byDueDay.lastKey());
+        while (day <= last) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            long monthEnd = date.withDayOfMonth(date.lengthOfMonth()).toEpochDay();
+            if (date.getDayOfMonth() == 1 && monthEnd <= last) {
+                TaskBitmap month = byDueMonth.get(day);
+                if (month != null) {
+                    accepted.add(month);
+                }
+            } else {
+                accepted.addAll(byDueDay.subMap(day, true, Math.min(monthEnd, last), true).values());
+            }
+            day = monthEnd + 1;
+        }
+        return accepted;
+    }
+
+    private static long cardinality(final List<TaskBitmap> union) {
+        long cardinality = 0;
+        for (TaskBitmap bitmap : union) {
+            cardinality += bitmap.cardinality();
+        }
+        return cardinality;
+    }
+
+    // Each clause is the list of bitmaps one criterion accepts. Index bitmaps are never modified;
+    // the running intersection is copied out of the index before the first AND.
+    private final class Plan {
+        private final List<List<TaskBitmap>> clauses = new ArrayList<>();
+        private final List<TaskBitmap> exclusions = new ArrayList<>();
+        private boolean owned;
+
+        void require(final Collection<TaskBitmap> accepted) {
+            List<TaskBitmap> bitmaps = new ArrayList<>(accepted.size());
+            for (TaskBitmap bitmap : accepted) {
+                if (bitmap != null) {
+                    bitmaps.add(bitmap);
+                }
+            }
+            clauses.add(bitmaps);
+        }
+
+        // AND of the first n clauses, or every task when n is 0. Sets owned when the result is
+        // a new bitmap rather than one of the index's own.
+        TaskBitmap intersect(final int n) {
+            if (n == 0) {
+                return all;
+            }
+            List<TaskBitmap> first = clauses.get(0);
+            TaskBitmap result;
+            if (first.isEmpty()) {
+                result = new TaskBitmap();
+                owned = true;
+            } else if (first.size() == 1) {
+                result = first.get(0);
+            } else {
+                result = first.get(0).copy();
+                for (TaskBitmap bitmap : first.subList(1, first.size())) {
+                    result.orWith(bitmap);
+                }
+                owned = true;
+            }
+            for (int i = 1; i < n && !result.isEmpty(); i++) {
+                if (!owned) {
+                    result = result.copy();
+                    owned = true;
+                }
+                List<TaskBitmap> accepted = clauses.get(i);
+                if (accepted.isEmpty()) {
+                    result.clear();
+                } else {
+                    result.andWithAny(accepted);
+                }
+            }
+            return result;
+        }
+    }
+
+    private void addDue(final Long day, final int ordinal) {
+        if (day != null) {
+            addTo(byDueDay, day, ordinal);
+            addTo(byDueMonth, monthOf(day), ordinal);
+        }
+    }
+
+    private void removeDue(final Long day, final int ordinal) {
+        if (day != null) {
+            removeFrom(byDueDay, day, ordinal);
+            removeFrom(byDueMonth, monthOf(day), ordinal);
+        }
+    }
+
+    private static long monthOf(final long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+    }
+
+    private void addAssignee(final String assignee, final int ordinal) {
+        if (assignee == null) {
+            unassigned.add(ordinal);
+        } else {
+            addTo(byAssignee, assignee, ordinal);
+        }
+    }
+
+    private void removeAssignee(final String assignee, final int ordinal) {
+        if (assignee == null) {
+            unassigned.remove(ordinal);
+        } else {
+            removeFrom(byAssignee, assignee, ordinal);
+        }
+    }
+
+    private static <K> void addTo(final Map<K, TaskBitmap> index, final K key, final int ordinal) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new TaskBitmap()).add(ordinal);
+        }
+    }
+
+    private static <K> void removeFrom(final Map<K, TaskBitmap> index, final K key, final int ordinal) {
+        TaskBitmap bitmap = key == null ? null : index.get(key);
+        if (bitmap != null) {
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    // Null for tasks without a valid yyyy-MM-dd deadline.
+    private static Long dueDay(final Task task) {
+        long epochDay = DeadlineIndex.epochDayOf(task.getDeadline());
+        return epochDay == DeadlineIndex.MALFORMED ? null : epochDay;
+    }
+
+    private static String fold(final String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,295 @@
+package taskmanager;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+
+// TaskIndex Class
+// Secondary indexes over the task store. TaskManager keeps them in sync on every mutation,
+// so a lookup costs about as much as the number of matching tasks instead of a full scan.
+class TaskIndex {
+    // Values are either a single id (String) or a LinkedHashSet of ids. Most names are unique,
+    // and a set per key would cost far more heap than the ids themselves.
+    private final Map<String, Object> nameIndex;
+    private final TaskOrdinals ordinals;
+    private final NameSearchIndex nameSearch;
+    private final TaskFilterIndex filterIndex;
+    private final DeadlineIndex deadlineIndex;
+    private final Map<String, Object> statusIndex;
+    private final TaskPartitions partitions;
+    private final Set<String> reminderSet;
+    private final PriorityIndex priorityIndex;
+    private final TaskStatistics statistics;
+    private final ReminderScheduler reminders;
+
+    // lookup resolves ids for the assignee partitions, which read without the store lock.
+    public TaskIndex(ReminderScheduler reminders, Function<String, Task> lookup) {
+        nameIndex = new HashMap<>();
+        ordinals = new TaskOrdinals();
+        nameSearch = new NameSearchIndex();
+        filterIndex = new TaskFilterIndex();
+        deadlineIndex = new DeadlineIndex();
+        statusIndex = new HashMap<>();
+        partitions = new TaskPartitions(lookup);
+        reminderSet = new LinkedHashSet<>();
+        priorityIndex = new PriorityIndex();
+        statistics = new TaskStatistics();
+        this.reminders = reminders;
+    }
+
+    public void taskAdded(final Task task) {
+        add(task, false);
+    }
+
+    // While reloading, reminders already in the past are dropped and the partitions are filled
+    // afterwards in one swap.
+    private void add(final Task task, final boolean reloading) {
+        final String id = task.getId();
+        addToIndex(nameIndex, fold(task.getName()), id);
+        int ordinal = ordinals.assign(id);
+        nameSearch.add(ordinal, task.getName());
+        filterIndex.add(ordinal, task);
+        deadlineIndex.add(id, task.getDeadline());
+        addToIndex(statusIndex, fold(task.getStatus()), id);
+        if (!reloading) {
+            partitions.add(task);
+        }
+        if (task.getReminder() != null) {
+            reminderSet.add(id);
+            if (reloading) {
+                reminders.restore(task);
+            } else {
+                reminders.schedule(task);
+            }
+        }
+        priorityIndex.add(task);
+        statistics.taskAdded(task);
+    }
+
+    public void taskRemoved(final Task task) {
+        final String id = task.getId();
+        removeFromIndex(nameIndex, fold(task.getName()), id);
+        int ordinal = ordinals.of(id);
+        if (ordinal >= 0) {
+            nameSearch.remove(ordinal, task.getName());
+            filterIndex.remove(ordinal, task);
+            ordinals.release(id);
+        }
+        deadlineIndex.remove(id, task.getDeadline());
+        removeFromIndex(statusIndex, fold(task.getStatus()), id);
+        partitions.remove(task);
+        reminderSet.remove(id);
+        priorityIndex.remove(id);
+        statistics.taskRemoved(task);
+        if (task.getReminder() != null) {
+            reminders.cancel(id);
+        }
+    }
+
+    // Touches only the indexes whose attribute differs between the two versions of a task.
+    public void taskUpdated(final Task previous, final Task updated) {
+        final String id = updated.getId();
+        // Unchanged values skip the case folding, which is most of the cost of a reassignment.
+        String oldName = previous.getName() == updated.getName() ? null : fold(previous.getName());
+        String newName = previous.getName() == updated.getName() ? null : fold(updated.getName());
+        if (!Objects.equals(oldName, newName)) {
+            removeFromIndex(nameIndex, oldName, id);
+            addToIndex(nameIndex, newName, id);
+            nameSearch.rename(ordinals.of(id), previous.getName(), updated.getName());
+        }
+        filterIndex.update(ordinals.of(id), previous, updated);
+        boolean deadlineChanged = !Objects.equals(previous.getDeadline(), updated.getDeadline());
+        if (deadlineChanged) {
+            deadlineIndex.remove(id, previous.getDeadline());
+            deadlineIndex.add(id, updated.getDeadline());
+        }
+        String oldStatus = previous.getStatus() == updated.getStatus() ? null : fold(previous.getStatus());
+        String newStatus = previous.getStatus() == updated.getStatus() ? null : fold(updated.getStatus());
+        if (!Objects.equals(oldStatus, newStatus)) {
+            removeFromIndex(statusIndex, oldStatus, id);
+            addToIndex(statusIndex, newStatus, id);
+        }
+        partitions.update(previous, updated);
+        if (updated.getReminder() != null) {
+            reminderSet.add(id);
+        } else {
+            reminderSet.remove(id);
+        }
+        boolean completionChanged = TaskManager.COMPLETED.equalsIgnoreCase(previous.getStatus())
+                != TaskManager.COMPLETED.equalsIgnoreCase(updated.getStatus());
+        if (!Objects.equals(previous.getReminder(), updated.getReminder()) || completionChanged) {
+            reminders.schedule(updated);
+        } else if (updated.getReminder() != null) {
+            reminders.refresh(updated);
+        }
+        if (deadlineChanged || previous.getPriority() != updated.getPriority()) {
+            priorityIndex.add(updated);
+        }
+        statistics.taskUpdated(previous, updated);
+    }
+
+    // Reminders of reloaded tasks that are already past are not fired again.
+    public void rebuild(final Collection<Task> tasks) {
+        clearIndexes();
+        for (Task task : tasks) {
+            add(task, true);
+        }
+        partitions.reload(tasks);
+    }
+
+    public void clear() {
+        clearIndexes();
+        partitions.clear();
+    }
+
+    private void clearIndexes() {
+        nameIndex.clear();
+        nameSearch.clear();
+        filterIndex.clear();
+        ordinals.clear();
+        deadlineIndex.clear();
+        statusIndex.clear();
+        reminderSet.clear();
+        priorityIndex.clear();
+        statistics.clear();
+        reminders.clear();
+    }
+
+    // Name and status lookups are case-insensitive, matching the original equalsIgnoreCase scans.
+    public Set<String> idsByName(final String name) {
+        return lookup(nameIndex, fold(name));
+    }
+
+    // Token, prefix and fuzzy matches on the words of task names, best first.
+    public List<String> idsMatchingName(final String query, final int limit) {
+        int[] matches = nameSearch.search(query, limit);
+        List<String> ids = new ArrayList<>(matches.length);
+        for (int ordinal : matches) {
+            ids.add(ordinals.idOf(ordinal));
+        }
+        return ids;
+    }
+
+    // Ids in ordinal order, which is roughly insertion order.
+    public List<String> idsMatching(final TaskFilter filter) {
+        TaskBitmap matches = filterIndex.evaluate(filter);
+        List<String> ids = new ArrayList<>((int) Math.min(matches.cardinality(), Integer.MAX_VALUE));
+        matches.forEach(ordinal -> ids.add(ordinals.idOf(ordinal)));
+        return ids;
+    }
+
+    public long countMatching(final TaskFilter filter) {
+        return filterIndex.count(filter);
+    }
+
+    public Set<String> idsByDeadline(final String deadline) {
+        return deadlineIndex.idsOn(deadline);
+    }
+
+    public List<String> idsDueBetween(final LocalDate from, final LocalDate to) {
+        return deadlineIndex.idsBetween(from.toEpochDay(), to.toEpochDay());
+    }
+
+    public List<String> idsDueBefore(final LocalDate date) {
+        return deadlineIndex.idsBefore(date.toEpochDay());
+    }
+
+    public Iterator<String> idsDueFrom(final LocalDate date) {
+        return deadlineIndex.idsFrom(date.toEpochDay());
+    }
+
+    public List<String> idsInDeadlineOrder() {
+        return deadlineIndex.idsInOrder();
+    }
+
+    public List<String> idsByDeadlineAfter(final Task lastSeen, final int limit) {
+        return deadlineIndex.pageAfter(lastSeen, limit);
+    }
+
+    public List<String> idsWithMalformedDeadline() {
+        return deadlineIndex.malformedIds();
+    }
+
+    public List<String> idsByPriority(final int k) {
+        return priorityIndex.topK(k);
+    }
+
+    public List<String> idsByPriorityAfter(final Task lastSeen, final int limit) {
+        return priorityIndex.pageAfter(lastSeen, limit);
+    }
+
+    public List<String> idsInPriorityOrder() {
+        return priorityIndex.idsInOrder();
+    }
+
+    public Set<String> idsByStatus(final String status) {
+        return lookup(statusIndex, fold(status));
+    }
+
+    // Thread-safe on its own: partition reads do not need the store lock.
+    public TaskPartitions partitions() {
+        return partitions;
+    }
+
+    public Set<String> idsWithReminder() {
+        return Collections.unmodifiableSet(reminderSet);
+    }
+
+    // Live counters; callers must hold the store lock while reading them.
+    public TaskStatistics statistics() {
+        return statistics;
+    }
+
+    private static String fold(final String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addToIndex(final Map<String, Object> index, final String key, final String id) {
+        if (key == null) {
+            return;
+        }
+        Object current = index.putIfAbsent(key, id);
+        if (current == null || current.equals(id)) {
+            return;
+        }
+        if (current instanceof String) {
+            Set<String> ids = new LinkedHashSet<>();
+            ids.add((String) current);
+            ids.add(id);
+            index.put(key, ids);
+        } else {
+            ((Set<String>) current).add(id);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void removeFromIndex(final Map<String, Object> index, final String key, final String id) {
+        if (key == null) {
+            return;
+        }
+        Object current = index.get(key);
+        if (current instanceof String) {
+            if (current.equals(id)) {
+                index.remove(key);
+            }
+        } else if (current != null) {
+            Set<String> ids = (Set<String>) current;
+            if (ids.remove(id) && ids.size() == 1) {
+                index.put(key, ids.iterator().next());
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> lookup(final Map<String, Object> index, final String key) {
+        Object current = key == null ? null : index.get(key);
+        if (current == null) {
+            return Collections.emptySet();
+        }
+        if (current instanceof String) {
+            return Collections.singleton((String) current);
+        }
+        return Collections.unmodifiableSet((Set<String>) current);
+    }
+}
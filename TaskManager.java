@@ -2,8 +2,29 @@
 package taskmanager;
 
 import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 // User Class
 class User {
@@ -24,24 +45,127 @@ class User {
     }
 }
 
+// Session Class
+// One client's login. Sessions are independent, so any number of users can be logged in at once.
+class Session {
+    private final String token;
+    private final User user;
+    private volatile long lastAccessMillis;
+
+    public Session(String token, User user) {
+        this.token = token;
+        this.user = user;
+        this.lastAccessMillis = System.currentTimeMillis();
+    }
+
+    public String getToken() { return token; }
+    public User getUser() { return user; }
+    public long getLastAccessMillis() { return lastAccessMillis; }
+
+    void touch(final long now) {
+        lastAccessMillis = now;
+    }
+}
+
 // UserManager Class
 class UserManager {
+    //Sessions unused for this long are closed on their next use, or by the next sweep.
+    public static final long SESSION_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    //Opening a session sweeps out idle ones at most this often, so tokens that are never sent again do not pile up.
+    private static final long SESSION_SWEEP_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
     private final Map<String, User> users;
-    private User loggedInUser;
+    private volatile WriteAheadLog journal;
+    private final Map<String, Session> sessions;
+    private final SecureRandom tokens;
+    //The console is one more session rather than a global logged-in user.
+    private volatile String consoleToken;
+    private volatile long lastSweepMillis;
 
     public UserManager() {
-        users = new HashMap<>();
-        loggedInUser = null;
+        users = new ConcurrentHashMap<>();
+        sessions = new ConcurrentHashMap<>();
+        tokens = new SecureRandom();
     }
 
     //Adding 'final' for a definite outcome. -B
     public void register(final String username, final String password) {
-        if (users.containsKey(username)) {
+        if (registerUser(username, password)) {
+            System.out.println("User registered successfully.");
+        } else {
             System.out.println("User already exists.");
+        }
+    }
+
+    //Returns false when the username is already taken.
+    public boolean registerUser(final String username, final String password) {
+        final User user = new User(username, password);
+        if (users.putIfAbsent(username, user) != null) {
+            return false;
+        }
+        final WriteAheadLog log = journal;
+        if (log != null) {
+            log.awaitDurable(log.appendRegisterUser(user));
+        }
+        return true;
+    }
+
+    //Open sessions, including idle ones that have not been swept yet.
+    public int sessionCount() {
+        return sessions.size();
+    }
+
+    //Checks the credentials and returns a new session token for them.
+    public Optional<String> openSession(final String username, final String password) {
+        final User user = users.get(username);
+        if (user == null || !user.getPassword().equals(password)) {
+            return Optional.empty();
+        }
+        sweepIdleSessions(System.currentTimeMillis());
+        final byte[] bytes = new byte[24];
+        tokens.nextBytes(bytes);
+        final String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(token, user));
+        return Optional.of(token);
+    }
+
+    public Optional<User> getSessionUser(final String token) {
+        final Session session = token == null ? null : sessions.get(token);
+        if (session == null) {
+            return Optional.empty();
+        }
+        final long now = System.currentTimeMillis();
+        if (now - session.getLastAccessMillis() > SESSION_IDLE_MILLIS) {
+            sessions.remove(token, session);
+            return Optional.empty();
+        }
+        session.touch(now);
+        return Optional.of(session.getUser());
+    }
+
+    public boolean closeSession(final String token) {
+        return token != null && sessions.remove(token) != null;
+    }
+
+    private void sweepIdleSessions(final long now) {
+        if (now - lastSweepMillis < SESSION_SWEEP_MILLIS) {
             return;
         }
-        users.put(username, new User(username, password));
-        System.out.println("User registered successfully.");
+        lastSweepMillis = now;
+        sessions.values().removeIf(session -> now - session.getLastAccessMillis() > SESSION_IDLE_MILLIS);
+    }
+
+    //Used by recovery; the user is already in the log, so nothing is appended.
+    void restore(final User user) {
+        users.put(user.getUsername(), user);
+    }
+
+    void attachJournal(final WriteAheadLog log) {
+        journal = log;
+    }
+
+    public Collection<User> getAllUsers() {
+        return new ArrayList<>(users.values());
     }
 
     //Refined use of 'optional' case which replaces the need of checking for null values or returning them. -B
@@ -50,9 +174,10 @@ class UserManager {
     }
 
     public boolean login(String username, String password) {
-        Optional<User> userOpt = getUser(username);
-        if (userOpt.isPresent() && userOpt.get().getPassword().equals(password)) {
-            loggedInUser = userOpt.get();
+        Optional<String> token = openSession(username, password);
+        if (token.isPresent()) {
+            closeSession(consoleToken);
+            consoleToken = token.get();
             System.out.println("Login successful.");
             return true;
         } else {
@@ -62,16 +187,17 @@ class UserManager {
     }
 
     public void logout() {
-        loggedInUser = null;
+        closeSession(consoleToken);
+        consoleToken = null;
         System.out.println("Logged out successfully.");
     }
 
     public boolean isUserLoggedIn() {
-        return loggedInUser != null;
+        return getLoggedInUser() != null;
     }
 
     public User getLoggedInUser() {
-        return loggedInUser;
+        return getSessionUser(consoleToken).orElse(null);
     }
 }
 
@@ -80,11 +206,15 @@ class CustomHashMap<K, V> {
     private final Map<K, V> map;
 
     public CustomHashMap() {
-        map = new HashMap<>();
+        this(new HashMap<>());
+    }
+
+    protected CustomHashMap(Map<K, V> map) {
+        this.map = map;
     }
 
-    public void put(K key, V value) {
-        map.put(key, value);
+    public V put(K key, V value) {
+        return map.put(key, value);
     }
 
     public V get(K key) {
@@ -99,10 +229,14 @@ class CustomHashMap<K, V> {
         return map.containsKey(key);
     }
 
-    public void printAllEntries() {
-        for (Map.Entry<K, V> entry : map.entrySet()) {
-            System.out.println("Key: " + entry.getKey() + ", Value: " + entry.getValue());
-        }
+    //Replaces the value for an existing key with the updater's result; returns the new value, or null if absent.
+    public V update(K key, UnaryOperator<V> updater) {
+        return map.computeIfPresent(key, (k, current) -> updater.apply(current));
+    }
+
+    //Swaps in the replacement only if the key still maps to the expected value.
+    public boolean replace(K key, V expected, V replacement) {
+        return map.replace(key, expected, replacement);
     }
 
     public boolean isEmpty() {
@@ -117,53 +251,107 @@ class CustomHashMap<K, V> {
         return map.values();
     }
 
-    public void exportToCSV(String filename) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
-            for (Map.Entry<K, V> entry : map.entrySet()) {
-                writer.write(entry.getKey() + "," + entry.getValue() + "\n");
+    //A single-threaded map is always consistent, so the live view doubles as the snapshot.
+    public Collection<V> snapshotValues() {
+        return Collections.unmodifiableCollection(map.values());
+    }
+
+    protected Collection<Map.Entry<K, V>> entrySnapshot() {
+        return Collections.unmodifiableSet(map.entrySet());
+    }
+
+    //Large buffers in both directions so a multi-million row file streams in bounded memory.
+    public static final int CSV_BUFFER_SIZE = 1 << 16;
+    private static final int MAX_REPORTED_REJECTS = 10;
+
+    public void exportToCSV(String filename, CsvCodec<V> codec) {
+        exportToCSV(filename, codec, snapshotValues());
+    }
+
+    public void exportToCSV(String filename, CsvCodec<V> codec, Collection<V> values) {
+        try (CsvWriter writer = new CsvWriter(new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(Paths.get(filename)), StandardCharsets.UTF_8), CSV_BUFFER_SIZE))) {
+            writer.writeRecord(codec.header());
+            int exported = 0;
+            for (V value : values) {
+                codec.encode(value, writer);
+                exported++;
             }
-            System.out.println("Data exported to CSV successfully.");
+            System.out.println("Exported " + exported + " record(s) to CSV successfully.");
         } catch (IOException e) {
             System.out.println("Error exporting to CSV: " + e.getMessage());
         }
     }
 
-    public void importFromCSV(String filename) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",", 2);
-                if (parts.length == 2) {
-                    K key = (K) parts[0];
-                    V value = (V) parts[1];
-                    map.put(key, value);
+    //Rows the codec rejects are counted and reported instead of being stored. Returns the number imported.
+    public int importFromCSV(String filename, CsvCodec<V> codec, Function<V, K> keyOf) {
+        int imported = 0;
+        int rejected = 0;
+        String[] header = codec.header();
+        try (CsvReader reader = new CsvReader(
+                new InputStreamReader(Files.newInputStream(Paths.get(filename)), StandardCharsets.UTF_8), CSV_BUFFER_SIZE)) {
+            boolean first = true;
+            while (reader.next()) {
+                if (first) {
+                    first = false;
+                    if (isHeader(reader, header)) {
+                        continue;
+                    }
+                }
+                try {
+                    V value = codec.decode(reader);
+                    put(keyOf.apply(value), value);
+                    imported++;
+                } catch (IllegalArgumentException e) {
+                    if (++rejected <= MAX_REPORTED_REJECTS) {
+                        System.out.println("Rejected line " + reader.lineNumber() + ": " + e.getMessage());
+                    }
                 }
             }
-            System.out.println("Data imported from CSV successfully.");
+            System.out.println("Imported " + imported + " record(s) from CSV, rejected " + rejected + " line(s).");
         } catch (IOException e) {
             System.out.println("Error importing from CSV: " + e.getMessage());
         }
+        return imported;
+    }
+
+    private static boolean isHeader(CsvReader record, String[] header) {
+        if (record.fieldCount() != header.length) {
+            return false;
+        }
+        for (int i = 0; i < header.length; i++) {
+            if (!header[i].equals(record.field(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 }
 
 // Task Class
-class Task {
-    private String id;
-    private String name;
-    private String deadline;
-    private String status;
-    private int priority;
-    private String assignedTo;
-    private String reminder;
+// Immutable: every change produces a new Task that replaces the map entry, so readers never lock
+// and never see a half-applied edit, and indexes can diff the old version against the new one.
+final class Task {
+    private final String id;
+    private final String name;
+    private final String deadline;
+    private final String status;
+    private final int priority;
+    private final String assignedTo;
+    private final String reminder;
 
     public Task(String id, String name, String deadline, String status, int priority) {
+        this(id, name, deadline, status, priority, null, null);
+    }
+
+    private Task(String id, String name, String deadline, String status, int priority, String assignedTo, String reminder) {
         this.id = id;
         this.name = name;
         this.deadline = deadline;
         this.status = status;
         this.priority = priority;
-        this.assignedTo = null;
-        this.reminder = null;
+        this.assignedTo = assignedTo;
+        this.reminder = reminder;
     }
 
     public String getId() { return id; }
@@ -174,12 +362,30 @@ class Task {
     public String getAssignedTo() { return assignedTo; }
     public String getReminder() { return reminder; }
 
-    public void setName(String name) { this.name = name; }
-    public void setDeadline(String deadline) { this.deadline = deadline; }
-    public void setStatus(String status) { this.status = status; }
-    public void setPriority(int priority) { this.priority = priority; }
-    public void setAssignedTo(String username) { this.assignedTo = username; }
-    public void setReminder(String reminder) { this.reminder = reminder; }
+    public Task withName(String name) { return new Task(id, name, deadline, status, priority, assignedTo, reminder); }
+    public Task withDeadline(String deadline) { return new Task(id, name, deadline, status, priority, assignedTo, reminder); }
+    public Task withStatus(String status) { return new Task(id, name, deadline, status, priority, assignedTo, reminder); }
+    public Task withPriority(int priority) { return new Task(id, name, deadline, status, priority, assignedTo, reminder); }
+    public Task withAssignedTo(String username) { return new Task(id, name, deadline, status, priority, username, reminder); }
+    public Task withReminder(String reminder) { return new Task(id, name, deadline, status, priority, assignedTo, reminder); }
+
+    public static Builder builder(String id) {
+        return new Builder(id);
+    }
+
+    //Starts a builder from this task, for changing several fields with a single copy.
+    public Builder toBuilder() {
+        return new Builder(id).name(name).deadline(deadline).status(status).priority(priority)
+                .assignedTo(assignedTo).reminder(reminder);
+    }
+
+    //Field-by-field comparison, for stores that hand out a fresh Task on every read.
+    boolean hasSameFields(Task other) {
+        return other != null && id.equals(other.id) && priority == other.priority
+                && Objects.equals(name, other.name) && Objects.equals(deadline, other.deadline)
+                && Objects.equals(status, other.status) && Objects.equals(assignedTo, other.assignedTo)
+                && Objects.equals(reminder, other.reminder);
+    }
 
     //Best practices - Use of String.format instead of the '+' operator. -B
     @Override
@@ -187,54 +393,515 @@ class Task {
         return String.format("Task{id='%s', name='%s', deadline='%s', status='%s', priority=%d, assignedTo='%s', reminder='%s'}",
                 id, name, deadline, status, priority, assignedTo, reminder);
     }
+
+    // Task.Builder Class
+    static final class Builder {
+        private final String id;
+        private String name;
+        private String deadline;
+        private String status;
+        private int priority;
+        private String assignedTo;
+        private String reminder;
+
+        private Builder(String id) {
+            this.id = id;
+        }
+
+        public Builder name(String name) { this.name = name; return this; }
+        public Builder deadline(String deadline) { this.deadline = deadline; return this; }
+        public Builder status(String status) { this.status = status; return this; }
+        public Builder priority(int priority) { this.priority = priority; return this; }
+        public Builder assignedTo(String assignedTo) { this.assignedTo = assignedTo; return this; }
+        public Builder reminder(String reminder) { this.reminder = reminder; return this; }
+
+        public Task build() {
+            return new Task(id, name, deadline, status, priority, assignedTo, reminder);
+        }
+    }
 }
 
 // TaskManager Class
 public class TaskManager {
     private CustomHashMap<String, Task> taskMap;
     private UserManager userManager;
+    private TaskIndex taskIndex;
+    private final ReminderScheduler reminders;
+    //Mutations take the write lock so the store and its indexes change together; queries share the read lock.
+    //Point reads by id skip it: tasks are immutable and the store is safe to read alongside a writer.
+    private final ReadWriteLock lock;
+    //Null unless persistence is enabled with openPersistence.
+    private volatile WriteAheadLog wal;
+    //Every stored change, published inside the write lock so event order is apply order.
+    private final TaskChangeFeed changes = new TaskChangeFeed();
+    private final TaskMetrics metrics = new TaskMetrics();
 
     public TaskManager() {
-        taskMap = new CustomHashMap<>();
+        this(new ConcurrentCustomHashMap<>());
+    }
+
+    public TaskManager(CustomHashMap<String, Task> taskMap) {
+        this(taskMap, new ReminderScheduler(Clock.systemDefaultZone(), ReminderScheduler.DEFAULT_TICK,
+                (task, dueAt) -> System.out.println("Reminder: " + task)));
+    }
+
+    //Pass a scheduler built on ReminderScheduler.ManualClock to control when reminders fire.
+    //The store must allow point reads alongside a writer, as ConcurrentCustomHashMap and ColumnarTaskMap do.
+    //Walking it is not safe alongside a writer: that happens under the store lock or through snapshotValues().
+    //A store that already holds tasks, such as a reopened MappedTaskMap, is indexed here.
+    public TaskManager(CustomHashMap<String, Task> taskMap, ReminderScheduler reminders) {
+        this.taskMap = taskMap;
+        this.reminders = reminders;
         userManager = new UserManager();
+        taskIndex = new TaskIndex(reminders, taskMap::get);
+        lock = new ReentrantReadWriteLock();
+        if (!taskMap.isEmpty()) {
+            taskIndex.rebuild(taskMap.getAllValues());
+        }
+        registerGauges();
+    }
+
+    //Gauges are read without the store lock: sizes may be a moment out of date, never torn.
+    private void registerGauges() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        metrics.gauge("tasks", () -> taskMap.size());
+        metrics.gauge("heap_used_bytes", () -> memory.getHeapMemoryUsage().getUsed());
+        metrics.gauge("heap_max_bytes", () -> memory.getHeapMemoryUsage().getMax());
+        metrics.gauge("change_feed_sequence", changes::lastSequence);
+        metrics.gauge("sessions", () -> userManager.sessionCount());
+        if (taskMap instanceof ColumnarTaskMap) {
+            metrics.gauge("store_heap_bytes", ((ColumnarTaskMap) taskMap)::columnBytes);
+        } else if (taskMap instanceof MappedTaskMap) {
+            metrics.gauge("store_mapped_bytes", ((MappedTaskMap) taskMap)::mappedBytes);
+        }
+    }
+
+    //Counters, latency histograms and gauges of this manager; see TaskMetrics.
+    public TaskMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void viewMetrics() {
+        System.out.print(metrics.dump());
+    }
+
+    //Calls are timed into metrics under the operation's name, including the wait for the lock.
+    private <T> T read(final String operation, final Supplier<T> query) {
+        final long started = System.nanoTime();
+        final TaskMetrics.Operation metric = metrics.operation(operation);
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } catch (RuntimeException | Error e) {
+            metric.failed();
+            throw e;
+        } finally {
+            lock.readLock().unlock();
+            metric.record(started);
+        }
+    }
+
+    //For operations that do not take the store lock, or take it more than once.
+    private <T> T timed(final String operation, final Supplier<T> work) {
+        final long started = System.nanoTime();
+        final TaskMetrics.Operation metric = metrics.operation(operation);
+        try {
+            return work.get();
+        } catch (RuntimeException | Error e) {
+            metric.failed();
+            throw e;
+        } finally {
+            metric.record(started);
+        }
+    }
+
+    //Mutations are logged inside the lock, so log order matches apply order, but the wait for fsync
+    //happens after releasing it so concurrent writers can share one group commit.
+    private <T> T write(final String operation, final Supplier<T> mutation) {
+        final long started = System.nanoTime();
+        final TaskMetrics.Operation metric = metrics.operation(operation);
+        try {
+            final T result;
+            final long logged;
+            final WriteAheadLog log = wal;
+            lock.writeLock().lock();
+            try {
+                result = mutation.get();
+                logged = log == null ? 0 : log.lastAppended();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (log != null) {
+                log.awaitDurable(logged);
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            metric.failed();
+            throw e;
+        } finally {
+            metric.record(started);
+        }
+    }
+
+    private void logPut(final Task task) {
+        if (wal != null) {
+            wal.appendPutTask(task);
+        }
+    }
+
+    private void logRemove(final String taskId) {
+        if (wal != null) {
+            wal.appendRemoveTask(taskId);
+        }
+    }
+
+    //previous is null for an added task, task is null for a removed one.
+    private void publishChange(final Task previous, final Task task) {
+        changes.publish(previous == null ? TaskChangeFeed.Kind.ADDED : task == null ? TaskChangeFeed.Kind.REMOVED
+                : TaskChangeFeed.Kind.UPDATED, previous, task);
+    }
+
+    //Subscribe here to follow task changes without re-reading the store; see TaskChangeFeed.
+    public TaskChangeFeed changeFeed() {
+        return changes;
+    }
+
+    //Starting point for a change consumer: every task as of one sequence number, handed to
+    //initialState outside the lock, and a subscription to the events after that number.
+    public TaskChangeFeed.Subscription subscribeToChanges(final Consumer<Task> initialState, final boolean gatePublisher) {
+        final long[] sequence = new long[1];
+        Collection<Task> tasks = read("subscribeToChanges", () -> {
+            sequence[0] = changes.lastSequence();
+            return taskMap.snapshotValues();
+        });
+        TaskChangeFeed.Subscription subscription = changes.subscribe(sequence[0] + 1, gatePublisher);
+        tasks.forEach(initialState);
+        return subscription;
+    }
+
+    //Replays the data directory into this (empty) manager, then logs every later mutation there.
+    public void openPersistence(final Path directory, final WriteAheadLog.Durability durability) throws IOException {
+        final long started = System.nanoTime();
+        final long records;
+        lock.writeLock().lock();
+        try {
+            records = WriteAheadLog.replay(directory, new WriteAheadLog.Replayer() {
+                @Override
+                public void putTask(Task task) {
+                    taskMap.put(task.getId(), task);
+                }
+
+                @Override
+                public void removeTask(String taskId) {
+                    taskMap.remove(taskId);
+                }
+
+                @Override
+                public void registerUser(User user) {
+                    userManager.restore(user);
+                }
+            });
+            taskIndex.rebuild(taskMap.getAllValues());
+            if (records > 0) {
+                changes.publish(TaskChangeFeed.Kind.RESET, null, null);
+            }
+            wal = WriteAheadLog.open(directory, durability);
+            userManager.attachJournal(wal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Recovered " + taskMap.size() + " task(s) from " + records + " log record(s) in "
+                + (System.nanoTime() - started) / 1_000_000 + " ms.");
+        if (wal.needsCompaction()) {
+            checkpoint();
+        }
+    }
+
+    //Compacts the log: rotates it under the write lock, then writes the snapshot without blocking clients.
+    public void checkpoint() {
+        final WriteAheadLog log = wal;
+        if (log == null) {
+            System.out.println("Persistence is not enabled.");
+            return;
+        }
+        final long started = System.nanoTime();
+        final List<Task> tasks;
+        final Collection<User> users;
+        try {
+            lock.writeLock().lock();
+            try {
+                log.rotate();
+                tasks = new ArrayList<>(taskMap.getAllValues());
+                users = userManager.getAllUsers();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.writeSnapshot(tasks, users);
+            System.out.println("Checkpoint written with " + tasks.size() + " task(s).");
+        } catch (IOException e) {
+            metrics.operation("checkpoint").failed();
+            System.out.println("Error writing checkpoint: " + e.getMessage());
+        } finally {
+            metrics.operation("checkpoint").record(started);
+        }
+    }
+
+    public void closePersistence() {
+        final WriteAheadLog log = wal;
+        if (log == null) {
+            return;
+        }
+        wal = null;
+        userManager.attachJournal(null);
+        try {
+            log.close();
+        } catch (IOException e) {
+            System.out.println("Error closing the write-ahead log: " + e.getMessage());
+        }
     }
 
-    public void addTask(Task task) {
-        taskMap.put(task.getId(), task);
+    public UserManager getUserManager() {
+        return userManager;
+    }
+
+    //Adds the task, or replaces the one with its id; returns the task it replaced, or null.
+    public Task addTask(Task task) {
+        Task existing = write("addTask", () -> {
+            Task stored = taskMap.get(task.getId());
+            List<String> assignees = Arrays.asList(stored == null ? null : stored.getAssignedTo(), task.getAssignedTo());
+            Task previous = taskIndex.partitions().locked(assignees, () -> {
+                Task replaced = taskMap.put(task.getId(), task);
+                if (replaced != null) {
+                    taskIndex.taskUpdated(replaced, task);
+                } else {
+                    taskIndex.taskAdded(task);
+                }
+                return replaced;
+            });
+            logPut(task);
+            publishChange(previous, task);
+            return previous;
+        });
+        if (task.getDeadline() != null && DeadlineIndex.epochDayOf(task.getDeadline()) == DeadlineIndex.MALFORMED) {
+            System.out.println("Warning: deadline '" + task.getDeadline() + "' is not yyyy-MM-dd; task will sort last by deadline.");
+        }
+        return existing;
     }
 
     //Standardisation of error messages, use of 'final', and rephrasing error message semantics -B
     public void removeTask(final String taskId) {
-        if (taskMap.remove(taskId) == null) {
+        if (deleteTask(taskId) == null) {
             System.out.println("Task not found.");
         } else {
             System.out.println("Task removed successfully.");
         }
     }
 
+    //Returns the removed task, or null when there was none.
+    public Task deleteTask(final String taskId) {
+        return write("deleteTask", () -> {
+            Task task = taskMap.get(taskId);
+            if (task == null) {
+                return null;
+            }
+            taskIndex.partitions().locked(Collections.singletonList(task.getAssignedTo()), () -> {
+                taskMap.remove(taskId);
+                taskIndex.taskRemoved(task);
+                return null;
+            });
+            logRemove(taskId);
+            publishChange(task, null);
+            return task;
+        });
+    }
+
+    public Task getTask(final String taskId) {
+        return timed("getTask", () -> taskMap.get(taskId));
+    }
+
     //adding 'final' for a definite outcome -B
     public void editTask(final String taskId, final String newName, final String newDeadline, final String newStatus, final int newPriority) {
-        Task task = taskMap.get(taskId);
+        Task task = updateTask(taskId, current -> current.toBuilder()
+                .name(newName)
+                .deadline(newDeadline)
+                .status(newStatus)
+                .priority(newPriority)
+                .build());
         if (task != null) {
-            task.setName(newName);
-            task.setDeadline(newDeadline);
-            task.setStatus(newStatus);
-            task.setPriority(newPriority);
             System.out.println("Task updated successfully.");
         } else {
             System.out.println("Task not found.");
         }
     }
 
-    public void viewAllTasks() {
-        taskMap.printAllEntries();
+    //Copy-on-write update: the new version replaces the entry in one atomic swap and the indexes
+    //are updated from the difference between the two versions. Returns null when the task does not exist.
+    //Writers are serialized by the write lock, so the swap cannot lose a race and needs no retry.
+    public Task updateTask(final String taskId, final UnaryOperator<Task> updater) {
+        return write("updateTask", () -> {
+            Task current = taskMap.get(taskId);
+            if (current == null) {
+                return null;
+            }
+            Task updated = updater.apply(current);
+            if (Objects.equals(current.getAssignedTo(), updated.getAssignedTo())) {
+                taskMap.replace(taskId, current, updated);
+                taskIndex.taskUpdated(current, updated);
+            } else {
+                //A reassignment swaps the store entry with both partitions locked, so it is in exactly one.
+                taskIndex.partitions().locked(Arrays.asList(current.getAssignedTo(), updated.getAssignedTo()), () -> {
+                    taskMap.replace(taskId, current, updated);
+                    taskIndex.taskUpdated(current, updated);
+                    return null;
+                });
+            }
+            logPut(updated);
+            publishChange(current, updated);
+            return updated;
+        });
     }
 
-    //Best practices - Use of 'final' and 'streams' -B
+    //All-or-nothing under one write-lock hold. The batch is first played against an overlay of the
+    //tasks it touches, so nothing changes if any mutation fails. Then each touched task is written
+    //once with its final version, its indexes and counters move once from its first to its last
+    //version, and the whole batch goes to the log as one record with one durable wait.
+    //The store writes run with every assignee partition the batch touches locked, so assignee
+    //listings, which skip the store lock, see all of the batch or none of it.
+    public TaskBatch.Result applyBatch(final TaskBatch batch) {
+        return write("applyBatch", () -> {
+            final int size = batch.size();
+            final TaskBatch.Outcome[] outcomes = new TaskBatch.Outcome[size];
+            final Task[] tasks = new Task[size];
+            //Per touched id: the stored version before the batch, and the version so far (null = removed).
+            final Map<String, Task> before = new LinkedHashMap<>();
+            final Map<String, Task> staged = new HashMap<>();
+            int failed = 0;
+            for (int i = 0; i < size; i++) {
+                TaskBatch.Mutation mutation = batch.get(i);
+                String id = mutation.getTaskId();
+                if (!before.containsKey(id)) {
+                    Task stored = taskMap.get(id);
+                    before.put(id, stored);
+                    staged.put(id, stored);
+                }
+                Task current = staged.get(id);
+                if (current == null && mutation.getKind() != TaskBatch.Kind.ADD) {
+                    outcomes[i] = TaskBatch.Outcome.NOT_FOUND;
+                    failed++;
+                    continue;
+                }
+                Task next = mutation.apply(current);
+                staged.put(id, next);
+                outcomes[i] = TaskBatch.Outcome.APPLIED;
+                tasks[i] = next == null ? current : next;
+            }
+            if (failed > 0) {
+                return rolledBack(outcomes, tasks, failed + " of " + size + " change(s) name a task that does not exist.");
+            }
+            final List<Task> puts = new ArrayList<>();
+            final List<String> removes = new ArrayList<>();
+            for (Map.Entry<String, Task> entry : before.entrySet()) {
+                Task last = staged.get(entry.getKey());
+                if (last != null) {
+                    if (!last.hasSameFields(entry.getValue())) {
+                        puts.add(last);
+                    }
+                } else if (entry.getValue() != null) {
+                    removes.add(entry.getKey());
+                }
+            }
+            //Logged before the store changes, so a batch too large for one record leaves everything as it was.
+            if (wal != null && (!puts.isEmpty() || !removes.isEmpty())) {
+                try {
+                    wal.appendBatch(puts, removes);
+                } catch (IllegalArgumentException e) {
+                    return rolledBack(outcomes, tasks, e.getMessage());
+                }
+            }
+            final Set<String> assignees = new HashSet<>();
+            for (Task task : puts) {
+                Task previous = before.get(task.getId());
+                if (previous != null) {
+                    assignees.add(previous.getAssignedTo());
+                }
+                assignees.add(task.getAssignedTo());
+            }
+            for (String id : removes) {
+                assignees.add(before.get(id).getAssignedTo());
+            }
+            taskIndex.partitions().locked(assignees, () -> {
+                for (Task task : puts) {
+                    Task previous = taskMap.put(task.getId(), task);
+                    if (previous != null) {
+                        taskIndex.taskUpdated(previous, task);
+                    } else {
+                        taskIndex.taskAdded(task);
+                    }
+                    publishChange(previous, task);
+                }
+                for (String id : removes) {
+                    Task removed = taskMap.remove(id);
+                    taskIndex.taskRemoved(removed);
+                    publishChange(removed, null);
+                }
+                return null;
+            });
+            return new TaskBatch.Result(true, outcomes, tasks, null);
+        });
+    }
+
+    private static TaskBatch.Result rolledBack(final TaskBatch.Outcome[] outcomes, final Task[] tasks, final String reason) {
+        for (int i = 0; i < outcomes.length; i++) {
+            if (outcomes[i] == TaskBatch.Outcome.APPLIED) {
+                outcomes[i] = TaskBatch.Outcome.ROLLED_BACK;
+            }
+        }
+        return new TaskBatch.Result(false, outcomes, tasks, reason);
+    }
+
+    //Reads a batch file (see TaskBatch.read for the row format) and applies it as one batch.
+    public void applyBatchFile(final String filename) {
+        final TaskBatch batch;
+        try (Reader in = Files.newBufferedReader(Paths.get(filename), StandardCharsets.UTF_8)) {
+            batch = TaskBatch.read(in);
+        } catch (IOException e) {
+            System.out.println("Error reading batch file: " + e.getMessage());
+            return;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid batch file: " + e.getMessage());
+            return;
+        }
+        TaskBatch.Result result = applyBatch(batch);
+        System.out.println(result);
+        for (int i = 0; i < result.size(); i++) {
+            if (result.outcome(i) == TaskBatch.Outcome.NOT_FOUND) {
+                System.out.println("  Change " + (i + 1) + ": task " + batch.get(i).getTaskId() + " not found.");
+            }
+        }
+    }
+
+    public TaskReport report() {
+        return new TaskReport(this);
+    }
+
+    // Prints one page of tasks in priority order and returns the cursor for the next page, or null
+    // after the last one.
+    public String viewAllTasks(final String cursor, final int pageSize) {
+        TaskReport report = report().after(cursor).limit(pageSize);
+        try {
+            if (report.write(System.out) == 0) {
+                System.out.println("No tasks found.");
+            }
+        } catch (IOException e) {
+            System.out.println("Error writing tasks: " + e.getMessage());
+            return null;
+        }
+        return report.nextCursor();
+    }
+
+    // Ranked token, prefix and fuzzy search; tasks named exactly `name` come first.
     public void searchTaskByName(final String name) {
-        List<Task> tasks = taskMap.getAllValues().stream()
-                .filter(task -> task.getName().equalsIgnoreCase(name))
-                .collect(Collectors.toList());
+        List<Task> tasks = searchTasks(name, SEARCH_RESULT_LIMIT);
         if (tasks.isEmpty()) {
             System.out.println("Task not found.");
         } else {
@@ -242,39 +909,158 @@ public class TaskManager {
         }
     }
 
-    public void searchTaskByDate(String date) {
-        boolean found = false;
-        for (Task task : taskMap.getAllValues()) {
-            if (task.getDeadline().equals(date)) {
-                System.out.println(task);
-                found = true;
-            }
+    public List<Task> findTasksByName(final String name) {
+        return read("findTasksByName", () -> resolve(taskIndex.idsByName(name)));
+    }
+
+    public List<Task> searchTasks(final String query, final int limit) {
+        return read("searchTasks", () -> resolve(taskIndex.idsMatchingName(query, limit)));
+    }
+
+    public List<Task> findTasks(final TaskFilter filter) {
+        return read("findTasks", () -> resolve(taskIndex.idsMatching(filter)));
+    }
+
+    // Answered from the bitmaps alone, without touching any task.
+    public long countTasks(final TaskFilter filter) {
+        return read("countTasks", () -> taskIndex.countMatching(filter));
+    }
+
+    public void filterTasks(final TaskFilter filter) {
+        List<Task> tasks = findTasks(filter);
+        if (tasks.isEmpty()) {
+            System.out.println("No tasks match " + filter + ".");
+        } else {
+            tasks.forEach(System.out::println);
+            System.out.println(tasks.size() + " task(s) match " + filter + ".");
         }
-        if (!found) {
+    }
+
+    public void searchTaskByDate(String date) {
+        List<Task> tasks = findTasksByDate(date);
+        if (tasks.isEmpty()) {
             System.out.println("Task not found.");
+        } else {
+            tasks.forEach(System.out::println);
+        }
+    }
+
+    public List<Task> findTasksByDate(final String date) {
+        return read("findTasksByDate", () -> resolve(taskIndex.idsByDeadline(date)));
+    }
+
+    public void searchTasksDueBetween(final String from, final String to) {
+        final List<Task> tasks;
+        try {
+            tasks = findTasksDueBetween(LocalDate.parse(from), LocalDate.parse(to));
+        } catch (DateTimeParseException e) {
+            System.out.println(INVALID_DATE);
+            return;
+        }
+        if (tasks.isEmpty()) {
+            System.out.println(TASK_NOT_FOUND);
+        } else {
+            tasks.forEach(System.out::println);
+        }
+    }
+
+    public List<Task> findTasksDueBetween(final LocalDate from, final LocalDate to) {
+        return read("findTasksDueBetween", () -> resolve(taskIndex.idsDueBetween(from, to)));
+    }
+
+    public void viewOverdueTasks() {
+        List<Task> tasks = findOverdueTasks(LocalDate.now());
+        if (tasks.isEmpty()) {
+            System.out.println("No overdue tasks.");
+        } else {
+            tasks.forEach(System.out::println);
+        }
+    }
+
+    // Tasks due strictly before the given day that are not yet completed.
+    public List<Task> findOverdueTasks(final LocalDate asOf) {
+        List<Task> tasks = read("findOverdueTasks", () -> resolve(taskIndex.idsDueBefore(asOf)));
+        tasks.removeIf(task -> COMPLETED.equalsIgnoreCase(task.getStatus()));
+        return tasks;
+    }
+
+    public void viewNextDueTasks(final int count) {
+        List<Task> tasks = findNextDueTasks(LocalDate.now(), count);
+        if (tasks.isEmpty()) {
+            System.out.println("No upcoming deadlines.");
+        } else {
+            tasks.forEach(System.out::println);
+        }
+    }
+
+    // The next open tasks due on or after the given day, walking the index only as far as needed.
+    public List<Task> findNextDueTasks(final LocalDate from, final int count) {
+        return read("findNextDueTasks", () -> {
+            List<Task> tasks = new ArrayList<>(Math.max(count, 0));
+            Iterator<String> ids = taskIndex.idsDueFrom(from);
+            while (tasks.size() < count && ids.hasNext()) {
+                Task task = taskMap.get(ids.next());
+                if (task != null && !COMPLETED.equalsIgnoreCase(task.getStatus())) {
+                    tasks.add(task);
+                }
+            }
+            return tasks;
+        });
+    }
+
+    public void viewTasksWithMalformedDeadlines() {
+        List<Task> tasks = read("viewTasksWithMalformedDeadlines", () -> resolve(taskIndex.idsWithMalformedDeadline()));
+        if (tasks.isEmpty()) {
+            System.out.println("All task deadlines are valid.");
+        } else {
+            System.out.println(tasks.size() + " task(s) have a deadline that is not yyyy-MM-dd:");
+            tasks.forEach(System.out::println);
         }
     }
 
+    // Walks the maintained priority order (ties by deadline, then id) instead of re-sorting.
     public void sortTasksByPriority() {
-        taskMap.getAllValues().stream()
-            .sorted((t1, t2) -> Integer.compare(t1.getPriority(), t2.getPriority()))
-            .forEach(System.out::println);
+        read("sortTasksByPriority", () -> resolve(taskIndex.idsInPriorityOrder())).forEach(System.out::println);
+    }
+
+    public void viewTopPriorityTasks(final int k) {
+        List<Task> tasks = topK(k);
+        if (tasks.isEmpty()) {
+            System.out.println("No tasks found.");
+        } else {
+            tasks.forEach(System.out::println);
+        }
+    }
+
+    public List<Task> topK(final int k) {
+        return read("topK", () -> resolve(taskIndex.idsByPriority(k)));
     }
 
+    // Stable paging: pass the last task of the previous page, or null for the first page.
+    public List<Task> tasksByPriorityPage(final Task lastSeen, final int pageSize) {
+        return read("tasksByPriorityPage", () -> resolve(taskIndex.idsByPriorityAfter(lastSeen, pageSize)));
+    }
+
+    // Stable paging in deadline order, with malformed deadlines last.
+    public List<Task> tasksByDeadlinePage(final Task lastSeen, final int pageSize) {
+        return read("tasksByDeadlinePage", () -> resolve(taskIndex.idsByDeadlineAfter(lastSeen, pageSize)));
+    }
+
+    // Walks the deadline index in order; tasks with malformed deadlines are listed last.
     public void sortTasksByDeadline() {
-        taskMap.getAllValues().stream()
-            .sorted((t1, t2) -> t1.getDeadline().compareTo(t2.getDeadline()))
-            .forEach(System.out::println);
+        read("sortTasksByDeadline", () -> resolve(taskIndex.idsInDeadlineOrder())).forEach(System.out::println);
     }
 
     //Best practices - Use of constants for repeatedly used strings -B
     public static final String COMPLETED = "Completed";
     public static final String TASK_NOT_FOUND = "Task not found.";
+    public static final String INVALID_DATE = "Invalid date. Please use yyyy-MM-dd.";
+    public static final int SEARCH_RESULT_LIMIT = 20;
+    public static final int CONSOLE_PAGE_SIZE = 20;
 
     public void markTaskAsCompleted(final String taskId) {
-        final Task task = taskMap.get(taskId);
+        final Task task = updateTask(taskId, current -> current.withStatus(COMPLETED));
         if (task != null) {
-            task.setStatus(COMPLETED);
             System.out.println("Task marked as completed.");
         } else {
             System.out.println(TASK_NOT_FOUND);
@@ -283,9 +1069,7 @@ public class TaskManager {
 
     //Best practices - Use of 'final' and 'streams' -B
     public void filterTasksByStatus(final String status) {
-        List<Task> tasks = taskMap.getAllValues().stream()
-                .filter(task -> task.getStatus().equalsIgnoreCase(status))
-                .collect(Collectors.toList());
+        List<Task> tasks = findTasksByStatus(status);
         if (tasks.isEmpty()) {
             System.out.println("No tasks with the given status.");
         } else {
@@ -293,10 +1077,13 @@ public class TaskManager {
         }
     }
 
+    public List<Task> findTasksByStatus(final String status) {
+        return read("findTasksByStatus", () -> resolve(taskIndex.idsByStatus(status)));
+    }
+
     public void assignTaskToUser(String taskId, String username) {
-        Task task = taskMap.get(taskId);
+        Task task = updateTask(taskId, current -> current.withAssignedTo(username));
         if (task != null) {
-            task.setAssignedTo(username);
             System.out.println("Task assigned to " + username + " successfully.");
         } else {
             System.out.println("Task not found.");
@@ -304,80 +1091,375 @@ public class TaskManager {
     }
 
     public void viewTasksAssignedToUser(String username) {
-        boolean found = false;
-        for (Task task : taskMap.getAllValues()) {
-            if (username.equals(task.getAssignedTo())) {
-                System.out.println(task);
-                found = true;
-            }
-        }
-        if (!found) {
+        List<Task> tasks = findTasksAssignedTo(username);
+        if (tasks.isEmpty()) {
             System.out.println("No tasks assigned to " + username);
+        } else {
+            tasks.forEach(System.out::println);
         }
     }
 
+    //Reads only that user's partition under its own lock, so it does not wait for the store lock.
+    public List<Task> findTasksAssignedTo(final String username) {
+        return timed("findTasksAssignedTo", () -> taskIndex.partitions().tasksOf(username));
+    }
+
     public void setTaskReminder(String taskId, String reminder) {
-        Task task = taskMap.get(taskId);
-        if (task != null) {
-            task.setReminder(reminder);
-            System.out.println("Reminder set for task.");
-        } else {
+        Task task = updateTask(taskId, current -> current.withReminder(reminder));
+        if (task == null) {
             System.out.println("Task not found.");
+            return;
+        }
+        Instant dueAt = reminders.dueAt(taskId);
+        if (dueAt != null) {
+            System.out.println("Reminder set for task, due " + LocalDateTime.ofInstant(dueAt, reminders.getClock().getZone()) + ".");
+        } else {
+            System.out.println("Reminder set for task, but it will not fire: use yyyy-MM-dd HH:mm on a task that is not completed.");
         }
     }
 
+    //Reminders normally fire from the scheduler thread; this delivers anything due right now.
     public void notifyUpcomingTasks() {
-        System.out.println("Upcoming tasks:");
-        for (Task task : taskMap.getAllValues()) {
-            if (task.getReminder() != null) {
-                System.out.println(task);
+        int fired = reminders.tick();
+        if (fired == 0) {
+            System.out.println("No reminders due.");
+        }
+        System.out.println(reminders.pending() + " reminder(s) scheduled.");
+    }
+
+    public void setReminderListener(final ReminderListener listener) {
+        reminders.setListener(listener);
+    }
+
+    public void startReminders() {
+        reminders.start();
+    }
+
+    public void stopReminders() {
+        reminders.close();
+    }
+
+    private List<Task> resolve(final Collection<String> ids) {
+        List<Task> tasks = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Task task = taskMap.get(id);
+            if (task != null) {
+                tasks.add(task);
             }
         }
+        return tasks;
     }
 
+    private static final TaskCsvCodec TASK_CSV_CODEC = new TaskCsvCodec();
+
+    //Like saveSnapshot, the file is written from a snapshot taken under the read lock, not the live store.
     public void exportTasksToCSV(String filename) {
-        taskMap.exportToCSV(filename);
+        timed("exportTasksToCSV", () -> {
+            taskMap.exportToCSV(filename, TASK_CSV_CODEC, read("snapshotTasks", taskMap::snapshotValues));
+            return null;
+        });
     }
 
+    //Imported rows may replace existing tasks, so the indexes are rebuilt once after the bulk load.
+    //Assignee listings wait for the rebuild, since they skip the store lock.
+    //With persistence on, a checkpoint captures the import instead of logging every row.
     public void importTasksFromCSV(String filename) {
-        taskMap.importFromCSV(filename);
+        int imported = write("importTasksFromCSV", () -> taskIndex.partitions().reloading(() -> {
+            int count = taskMap.importFromCSV(filename, TASK_CSV_CODEC, Task::getId);
+            if (count > 0) {
+                rebuildIndexes();
+                changes.publish(TaskChangeFeed.Kind.RESET, null, null);
+            }
+            return count;
+        }));
+        if (imported > 0 && wal != null) {
+            checkpoint();
+        }
+    }
+
+    // Multi-core bulk load for large files; each parsed chunk is merged into the store and indexes as one batch.
+    public void importTasksFromCSVParallel(String filename) {
+        ParallelCsvImporter<Task> importer = new ParallelCsvImporter<>(TASK_CSV_CODEC, ForkJoinPool.commonPool());
+        try {
+            final long started = System.nanoTime();
+            ParallelCsvImporter.Result result;
+            try {
+                result = importer.importFile(filename, this::mergeImportedBatch);
+            } finally {
+                metrics.operation("importTasksFromCSVParallel").record(started);
+            }
+            System.out.println(result);
+            reportMalformedDeadlines();
+            if (result.getImported() > 0 && wal != null) {
+                checkpoint();
+            }
+        } catch (IOException e) {
+            metrics.operation("importTasksFromCSVParallel").failed();
+            System.out.println("Error importing from CSV: " + e.getMessage());
+        }
+    }
+
+    //One write-lock hold per batch, so other clients can interleave between chunks of a long import.
+    //Like applyBatch, the chunk is merged with every assignee partition it touches locked.
+    private void mergeImportedBatch(final List<Task> batch) {
+        write("importBatch", () -> {
+            final Set<String> assignees = new HashSet<>();
+            for (Task task : batch) {
+                Task stored = taskMap.get(task.getId());
+                if (stored != null) {
+                    assignees.add(stored.getAssignedTo());
+                }
+                assignees.add(task.getAssignedTo());
+            }
+            return taskIndex.partitions().locked(assignees, () -> {
+                for (Task task : batch) {
+                    Task previous = taskMap.put(task.getId(), task);
+                    if (previous != null) {
+                        taskIndex.taskUpdated(previous, task);
+                    } else {
+                        taskIndex.taskAdded(task);
+                    }
+                    publishChange(previous, task);
+                }
+                return null;
+            });
+        });
+    }
+
+    //Binary snapshots load much faster than CSV; see TaskSnapshot for the format.
+    public void saveSnapshot(String filename) {
+        long started = System.nanoTime();
+        try {
+            long count = TaskSnapshot.write(Paths.get(filename), read("snapshotTasks", taskMap::snapshotValues));
+            System.out.println("Saved " + count + " task(s) to snapshot in " + (System.nanoTime() - started) / 1_000_000 + " ms.");
+        } catch (IOException e) {
+            metrics.operation("saveSnapshot").failed();
+            System.out.println("Error saving snapshot: " + e.getMessage());
+        } finally {
+            metrics.operation("saveSnapshot").record(started);
+        }
+    }
+
+    public void loadSnapshot(String filename) {
+        final long started = System.nanoTime();
+        final long[] count = new long[1];
+        String error = write("loadSnapshot", () -> taskIndex.partitions().reloading(() -> {
+            try {
+                count[0] = TaskSnapshot.read(Paths.get(filename), task -> taskMap.put(task.getId(), task));
+            } catch (IOException e) {
+                return e.getMessage();
+            } finally {
+                if (count[0] > 0 || !taskMap.isEmpty()) {
+                    taskIndex.rebuild(taskMap.getAllValues());
+                }
+                if (count[0] > 0) {
+                    changes.publish(TaskChangeFeed.Kind.RESET, null, null);
+                }
+            }
+            return null;
+        }));
+        if (error != null) {
+            metrics.operation("loadSnapshot").failed();
+            System.out.println("Error loading snapshot: " + error);
+            return;
+        }
+        System.out.println("Loaded " + count[0] + " task(s) from snapshot in " + (System.nanoTime() - started) / 1_000_000 + " ms.");
+        reportMalformedDeadlines();
+        if (count[0] > 0 && wal != null) {
+            checkpoint();
+        }
+    }
+
+    private void rebuildIndexes() {
+        taskIndex.rebuild(taskMap.getAllValues());
+        reportMalformedDeadlines();
+    }
+
+    private void reportMalformedDeadlines() {
+        int malformed = read("countMalformedDeadlines", () -> taskIndex.idsWithMalformedDeadline().size());
+        if (malformed > 0) {
+            System.out.println("Warning: " + malformed + " task(s) have a deadline that is not yyyy-MM-dd (see option 23).");
+        }
+    }
+
+    //Counts are maintained incrementally by the index, so this copies a few small maps instead of scanning every task.
+    public TaskStatistics getStatistics() {
+        return read("getStatistics", () -> taskIndex.statistics().copy());
     }
 
     public void taskAnalytics() {
-            // Count the number of tasks by status
-    Map<String, Long> statusCount = taskMap.getAllValues().stream()
-        .collect(Collectors.groupingBy(Task::getStatus, Collectors.counting()));
-    
-    // Count the number of tasks by priority
-    Map<Integer, Long> priorityCount = taskMap.getAllValues().stream()
-        .collect(Collectors.groupingBy(Task::getPriority, Collectors.counting()));
-    
-    // Count the number of tasks by assigned user
-    Map<String, Long> userCount = taskMap.getAllValues().stream()
-        .filter(task -> task.getAssignedTo() != null)
-        .collect(Collectors.groupingBy(Task::getAssignedTo, Collectors.counting()));
-    
-    // Print the results
-    System.out.println("Task Analytics:");
-    
-    System.out.println("Tasks by Status:");
-    statusCount.forEach((status, count) -> System.out.println(status + ": " + count));
-    
-    System.out.println("\nTasks by Priority:");
-    priorityCount.forEach((priority, count) -> System.out.println("Priority " + priority + ": " + count));
-    
-    System.out.println("\nTasks by Assigned User:");
-    userCount.forEach((user, count) -> System.out.println(user + ": " + count));
-    }
-
-    public void generateTaskReport() {
+        TaskStatistics stats = getStatistics();
+        LocalDate today = LocalDate.now();
+
+        System.out.println("Task Analytics:");
+        System.out.println("Total tasks: " + stats.getTotal() + ", completed: " + stats.getCompleted()
+                + String.format(" (%.1f%%)", stats.completionRate() * 100) + ", overdue: " + stats.overdueCount(today));
+
+        System.out.println("Tasks by Status:");
+        stats.statusCounts().forEach((status, count) -> System.out.println(status + ": " + count));
+
+        System.out.println("\nTasks by Priority:");
+        stats.priorityCounts().forEach((priority, count) -> System.out.println("Priority " + priority + ": " + count));
+
+        System.out.println("\nTasks by Assigned User:");
+        Map<String, Double> rates = stats.completionRateByAssignee();
+        stats.assigneeCounts().forEach((user, count) ->
+                System.out.println(user + ": " + count + String.format(" (%.1f%% completed)", rates.get(user) * 100)));
+
+        System.out.println("\nTasks by Deadline Week:");
+        stats.weeklyDeadlineHistogram().forEach((week, count) -> System.out.println("Week of " + week + ": " + count));
+        if (stats.getUndated() > 0) {
+            System.out.println("No valid deadline: " + stats.getUndated());
+        }
+    }
+
+    //Recomputes the analytics from scratch in one parallel pass and checks them against the live counters.
+    public void verifyAnalytics() {
+        final long started = System.nanoTime();
+        final boolean[] consistent = new boolean[1];
+        read("verifyAnalytics", () -> {
+            consistent[0] = TaskStatistics.compute(taskMap.getAllValues()).equals(taskIndex.statistics());
+            return null;
+        });
+        System.out.println((consistent[0] ? "Analytics are consistent" : "Analytics are INCONSISTENT with the task store")
+                + " (full recompute took " + (System.nanoTime() - started) / 1_000_000 + " ms).");
+    }
+
+    //Streams the report page by page, so it runs in constant memory. A null filename writes to the console.
+    public void generateTaskReport(final TaskReport.Format format, final TaskReport.Order order, final String filename) {
         System.out.println("Generating task report...");
-        // Generating a report based on hash map entries.
-        taskMap.printAllEntries();
+        long started = System.nanoTime();
+        TaskReport report = report().format(format).order(order);
+        try {
+            if (filename == null) {
+                report.write(System.out);
+            } else {
+                try (OutputStream out = Files.newOutputStream(Paths.get(filename))) {
+                    long count = report.write(out);
+                    System.out.println("Report of " + count + " task(s) written to " + filename + ".");
+                }
+            }
+        } catch (IOException e) {
+            metrics.operation("generateTaskReport").failed();
+            System.out.println("Error writing report: " + e.getMessage());
+        } finally {
+            metrics.operation("generateTaskReport").record(started);
+        }
+    }
+
+    // Blank answers leave a criterion out. Returns null after reporting invalid input.
+    private static TaskFilter readFilter(final Scanner scanner) {
+        TaskFilter filter = new TaskFilter();
+        System.out.print("Status (blank for any): ");
+        String status = scanner.nextLine().trim();
+        if (!status.isEmpty()) {
+            filter.status(status);
+        }
+        System.out.print("Highest priority number to include (blank for any): ");
+        String priority = scanner.nextLine().trim();
+        System.out.print("Assigned to (blank for anyone): ");
+        String assignee = scanner.nextLine().trim();
+        if (!assignee.isEmpty()) {
+            filter.assignedTo(assignee);
+        }
+        System.out.print("Due from (yyyy-MM-dd, blank for any): ");
+        String from = scanner.nextLine().trim();
+        System.out.print("Due to (yyyy-MM-dd, blank for any): ");
+        String to = scanner.nextLine().trim();
+        try {
+            if (!priority.isEmpty()) {
+                filter.priorityAtMost(Integer.parseInt(priority));
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid priority.");
+            return null;
+        }
+        try {
+            if (!from.isEmpty() || !to.isEmpty()) {
+                filter.dueBetween(from.isEmpty() ? null : LocalDate.parse(from), to.isEmpty() ? null : LocalDate.parse(to));
+            }
+        } catch (DateTimeParseException e) {
+            System.out.println(INVALID_DATE);
+            return null;
+        }
+        return filter;
     }
 
+    //Usage: TaskManager [--data-dir <directory>] [--async] [--columnar | --mapped <directory>] [--serve <port>]
+    //       TaskManager --csv-to-snapshot <csv> <snapshot> | --snapshot-to-csv <snapshot> <csv>
+    //With --data-dir every mutation is written to a write-ahead log in that directory and replayed on start.
+    //With --mapped tasks are kept off-heap in memory-mapped files in that directory (see MappedTaskMap).
+    //With --serve the HTTP/JSON API (see TaskServer) is started instead of the console menu.
     public static void main(String[] args) {
-        TaskManager manager = new TaskManager();
+        boolean columnar = false;
+        String mappedDir = null;
+        String dataDir = null;
+        int servePort = -1;
+        WriteAheadLog.Durability durability = WriteAheadLog.Durability.SYNC;
+        for (int i = 0; i < args.length; i++) {
+            if ("--data-dir".equals(args[i]) && i + 1 < args.length) {
+                dataDir = args[++i];
+            } else if ("--async".equals(args[i])) {
+                durability = WriteAheadLog.Durability.ASYNC;
+            } else if ("--columnar".equals(args[i])) {
+                columnar = true;
+            } else if ("--mapped".equals(args[i]) && i + 1 < args.length) {
+                mappedDir = args[++i];
+            } else if ("--serve".equals(args[i]) && i + 1 < args.length) {
+                servePort = Integer.parseInt(args[++i]);
+            } else if (("--csv-to-snapshot".equals(args[i]) || "--snapshot-to-csv".equals(args[i])) && i + 2 < args.length) {
+                try {
+                    long converted = "--csv-to-snapshot".equals(args[i])
+                            ? TaskSnapshot.fromCsv(Paths.get(args[i + 1]), Paths.get(args[i + 2]))
+                            : TaskSnapshot.toCsv(Paths.get(args[i + 1]), Paths.get(args[i + 2]));
+                    System.out.println("Converted " + converted + " task(s).");
+                } catch (IOException e) {
+                    System.out.println("Error converting: " + e.getMessage());
+                }
+                return;
+            }
+        }
+        final CustomHashMap<String, Task> store;
+        if (mappedDir != null) {
+            try {
+                store = new MappedTaskMap(Paths.get(mappedDir));
+            } catch (IOException e) {
+                System.out.println("Error opening mapped store: " + e.getMessage());
+                return;
+            }
+        } else {
+            store = columnar ? new ColumnarTaskMap() : new ConcurrentCustomHashMap<>();
+        }
+        final TaskManager manager = new TaskManager(store);
+        if (dataDir != null) {
+            try {
+                manager.openPersistence(Paths.get(dataDir), durability);
+            } catch (IOException e) {
+                System.out.println("Error opening data directory: " + e.getMessage());
+                closeStore(store);
+                return;
+            }
+        }
+        manager.startReminders();
+        manager.getMetrics().registerMBeans();
+        if (servePort >= 0) {
+            try {
+                final TaskServer server = TaskServer.start(manager, new InetSocketAddress(servePort));
+                System.out.println("Serving the task API on http://localhost:" + server.getPort() + "/");
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    server.close();
+                    manager.stopReminders();
+                    manager.closePersistence();
+                    closeStore(store);
+                }));
+            } catch (IOException e) {
+                System.out.println("Error starting server: " + e.getMessage());
+                manager.stopReminders();
+                manager.closePersistence();
+                closeStore(store);
+            }
+            return;
+        }
         Scanner scanner = new Scanner(System.in);
 
         boolean exit = false;
@@ -437,6 +1519,20 @@ public class TaskManager {
                 System.out.println("17. Task Analytics");
                 System.out.println("18. Generate Task Report");
                 System.out.println("19. Logout");
+                System.out.println("20. Search Tasks Due Between Dates");
+                System.out.println("21. View Overdue Tasks");
+                System.out.println("22. View Next Due Tasks");
+                System.out.println("23. View Tasks with Invalid Deadlines");
+                System.out.println("24. View Top Priority Tasks");
+                System.out.println("25. Bulk Import Tasks from CSV (parallel)");
+                System.out.println("26. Checkpoint Data");
+                System.out.println("27. Save Binary Snapshot");
+                System.out.println("28. Load Binary Snapshot");
+                System.out.println("29. Verify Task Analytics");
+                System.out.println("30. View My Tasks");
+                System.out.println("31. Filter Tasks by Several Criteria");
+                System.out.println("32. Apply Batch of Changes from File");
+                System.out.println("33. View Metrics");
                 System.out.print("Choose an option: ");
                 int menuChoice = scanner.nextInt();
                 scanner.nextLine(); // Consume newline
@@ -460,7 +1556,14 @@ public class TaskManager {
                         System.out.println("Task added successfully.");
                         break;
                     case 2:
-                        manager.viewAllTasks();
+                        String cursor = manager.viewAllTasks(null, CONSOLE_PAGE_SIZE);
+                        while (cursor != null) {
+                            System.out.print("Press Enter for more, or q to stop: ");
+                            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                                break;
+                            }
+                            cursor = manager.viewAllTasks(cursor, CONSOLE_PAGE_SIZE);
+                        }
                         break;
                     case 3:
                         System.out.print("Enter task ID to edit: ");
@@ -523,7 +1626,7 @@ public class TaskManager {
                     case 13:
                         System.out.print("Enter task ID to set reminder: ");
                         String reminderId = scanner.nextLine();
-                        System.out.print("Enter reminder details: ");
+                        System.out.print("Enter reminder time (yyyy-MM-dd HH:mm): ");
                         String reminderDetails = scanner.nextLine();
                         manager.setTaskReminder(reminderId, reminderDetails);
                         break;
@@ -544,12 +1647,95 @@ public class TaskManager {
                         manager.taskAnalytics();
                         break;
                     case 18:
-                        manager.generateTaskReport();
+                        System.out.print("Format (text, csv or jsonl; blank for text): ");
+                        String reportFormat = scanner.nextLine().trim();
+                        System.out.print("Order (priority or deadline; blank for priority): ");
+                        String reportOrder = scanner.nextLine().trim();
+                        System.out.print("File to write (blank for the console): ");
+                        String reportFile = scanner.nextLine().trim();
+                        final TaskReport.Format format;
+                        final TaskReport.Order order;
+                        try {
+                            format = reportFormat.isEmpty() ? TaskReport.Format.TEXT : TaskReport.Format.valueOf(reportFormat.toUpperCase(Locale.ROOT));
+                            order = reportOrder.isEmpty() ? TaskReport.Order.PRIORITY : TaskReport.Order.valueOf(reportOrder.toUpperCase(Locale.ROOT));
+                        } catch (IllegalArgumentException e) {
+                            System.out.println("Invalid format or order.");
+                            break;
+                        }
+                        manager.generateTaskReport(format, order, reportFile.isEmpty() ? null : reportFile);
                         break;
                     case 19:
                         manager.userManager.logout();
                         loggedIn = false;
                         break;
+                    case 20:
+                        System.out.print("Enter start date (yyyy-MM-dd): ");
+                        String fromDate = scanner.nextLine();
+                        System.out.print("Enter end date (yyyy-MM-dd): ");
+                        String toDate = scanner.nextLine();
+                        manager.searchTasksDueBetween(fromDate, toDate);
+                        break;
+                    case 21:
+                        manager.viewOverdueTasks();
+                        break;
+                    case 22:
+                        System.out.print("Enter number of tasks to show: ");
+                        int nextCount = scanner.nextInt();
+                        scanner.nextLine(); // Consume newline
+                        manager.viewNextDueTasks(nextCount);
+                        break;
+                    case 23:
+                        manager.viewTasksWithMalformedDeadlines();
+                        break;
+                    case 24:
+                        System.out.print("Enter number of tasks to show: ");
+                        int topCount = scanner.nextInt();
+                        scanner.nextLine(); // Consume newline
+                        manager.viewTopPriorityTasks(topCount);
+                        break;
+                    case 25:
+                        System.out.print("Enter filename to bulk import tasks: ");
+                        String bulkFilename = scanner.nextLine();
+                        manager.importTasksFromCSVParallel(bulkFilename);
+                        break;
+                    case 26:
+                        manager.checkpoint();
+                        break;
+                    case 27:
+                        System.out.print("Enter filename to save snapshot: ");
+                        String saveFilename = scanner.nextLine();
+                        manager.saveSnapshot(saveFilename);
+                        break;
+                    case 28:
+                        System.out.print("Enter filename to load snapshot: ");
+                        String loadFilename = scanner.nextLine();
+                        manager.loadSnapshot(loadFilename);
+                        break;
+                    case 29:
+                        manager.verifyAnalytics();
+                        break;
+                    case 30:
+                        User me = manager.userManager.getLoggedInUser();
+                        if (me == null) {
+                            System.out.println("Your session has expired; please log in again.");
+                        } else {
+                            manager.viewTasksAssignedToUser(me.getUsername());
+                        }
+                        break;
+                    case 31:
+                        TaskFilter filter = readFilter(scanner);
+                        if (filter != null) {
+                            manager.filterTasks(filter);
+                        }
+                        break;
+                    case 32:
+                        System.out.print("Enter filename of the batch (one change per row, see TaskBatch): ");
+                        String batchFilename = scanner.nextLine();
+                        manager.applyBatchFile(batchFilename);
+                        break;
+                    case 33:
+                        manager.viewMetrics();
+                        break;
                     default:
                         System.out.println("Invalid option.");
                         break;
@@ -558,6 +1744,20 @@ public class TaskManager {
         }
 
         scanner.close();
+        manager.stopReminders();
+        manager.closePersistence();
+        closeStore(store);
+    }
+
+    // Mapped stores mark themselves cleanly closed, so the next start skips the index rebuild.
+    private static void closeStore(final CustomHashMap<String, Task> store) {
+        if (store instanceof MappedTaskMap) {
+            try {
+                ((MappedTaskMap) store).close();
+            } catch (IOException e) {
+                System.out.println("Error closing mapped store: " + e.getMessage());
+            }
+        }
     }
 }
 
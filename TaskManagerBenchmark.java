@@ -0,0 +1,421 @@
+package taskmanager;
+
+import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+// TaskManagerBenchmark Class
+// Benchmarks for the TaskManager and CustomHashMap hot paths, using nothing outside the JDK.
+// Every benchmark runs timed warmup iterations and then measured iterations. Each call is timed
+// on its own for the latency percentiles. Allocation is read from the JVM's per-thread allocation
+// counters, and GC counts and times from the collector MXBeans. Results can be written to CSV and
+// compared with an earlier run, so a change can be checked against a baseline.
+// jmh/TaskManagerJmh runs the same hot paths under JMH (mvn -Pjmh package) for its profilers.
+//
+// Usage: java -Xmx16g taskmanager.TaskManagerBenchmark [--sizes 10000,1000000,10000000]
+//            [--only findTasksByName,taskAnalytics] [--warmup 3] [--iterations 5] [--seconds 1]
+//            [--out results.csv] [--baseline previous.csv]
+// Sizes that would not fit in the heap are skipped with a message.
+final class TaskManagerBenchmark {
+    private static final String[] RESULT_HEADER = {"benchmark", "size", "calls", "opsPerSec", "avgMicros",
+            "p50Micros", "p99Micros", "p999Micros", "maxMicros", "bytesPerOp", "allocMBPerSec", "gcCount", "gcMillis"};
+    private static final int KEYS = 1 << 16;
+    private static final int MAX_SAMPLES = 1 << 21;
+    // About 670 bytes per task were measured at 1M tasks with every index populated; the import
+    // benchmarks hold a second copy while the first is still live.
+    private static final long HEAP_BYTES_PER_TASK = 1500;
+
+    // Everything goes to the console stream; TaskManager's own messages are silenced while benchmarking.
+    private static final PrintStream CONSOLE = System.out;
+    // Results are folded in here so the JIT cannot drop the benchmarked calls.
+    private static volatile long sink;
+
+    private final int warmupIterations;
+    private final int measuredIterations;
+    private final long iterationNanos;
+    private final long[] samples;
+    private long sampleCount;
+
+    private TaskManagerBenchmark(int warmupIterations, int measuredIterations, long iterationNanos) {
+        this.warmupIterations = warmupIterations;
+        this.measuredIterations = measuredIterations;
+        this.iterationNanos = iterationNanos;
+        this.samples = new long[MAX_SAMPLES];
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Integer> sizes = Arrays.asList(10_000, 1_000_000, 10_000_000);
+        Set<String> only = new HashSet<>();
+        int warmup = 3;
+        int iterations = 5;
+        double seconds = 1;
+        String out = null;
+        String baseline = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = new ArrayList<>();
+                    for (String size : value.split(",")) {
+                        sizes.add(Integer.parseInt(size.trim()));
+                    }
+                    break;
+                case "--only":
+                    only.addAll(Arrays.asList(value.split(",")));
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(value);
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(value);
+                    break;
+                case "--seconds":
+                    seconds = Double.parseDouble(value);
+                    break;
+                case "--out":
+                    out = value;
+                    break;
+                case "--baseline":
+                    baseline = value;
+                    break;
+                default:
+                    CONSOLE.println("Unknown option " + args[i]);
+                    return;
+            }
+        }
+
+        TaskManagerBenchmark benchmark = new TaskManagerBenchmark(warmup, iterations, (long) (seconds * 1e9));
+        Map<String, String[]> previous = baseline == null ? Collections.emptyMap() : readResults(Path.of(baseline));
+        List<String[]> results = new ArrayList<>();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int size : sizes) {
+                long needed = size * HEAP_BYTES_PER_TASK;
+                if (needed > Runtime.getRuntime().maxMemory()) {
+                    CONSOLE.println("Skipping " + size + " tasks: needs about " + (needed >> 20) + " MB of heap, run with a larger -Xmx.");
+                    continue;
+                }
+                for (String[] row : benchmark.runAll(size, only)) {
+                    results.add(row);
+                    print(row, previous.get(row[0] + "/" + row[1]));
+                }
+            }
+        } finally {
+            System.setOut(CONSOLE);
+        }
+        if (out != null) {
+            writeResults(Path.of(out), results);
+            CONSOLE.println("Results written to " + out);
+        }
+    }
+
+    private List<String[]> runAll(final int size, final Set<String> only) throws IOException {
+        CONSOLE.println("Populating " + size + " tasks...");
+        long started = System.nanoTime();
+        Fixture fixture = new Fixture(size);
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        CONSOLE.println("Populated in " + (System.nanoTime() - started) / 1_000_000 + " ms, heap in use about "
+                + (runtime.totalMemory() - runtime.freeMemory()) / size + " bytes per task.");
+        CONSOLE.printf("%-24s %10s %12s %10s %10s %10s %10s %12s %10s %6s%n", "Benchmark", "Tasks", "ops/s",
+                "avg us", "p50 us", "p99 us", "p99.9 us", "B/op", "alloc MB/s", "GCs");
+        Path dir = Files.createTempDirectory("task-benchmark");
+        Path csv = dir.resolve("tasks.csv");
+        fixture.manager.exportTasksToCSV(csv.toString());
+        try {
+            Map<String, Operation> benchmarks = new LinkedHashMap<>();
+            benchmarks.put("taskMap.get", i -> fixture.map.get(fixture.ids[i & (KEYS - 1)]).getPriority());
+            benchmarks.put("findTasksByName", i -> fixture.manager.findTasksByName(fixture.names[i & (KEYS - 1)]).size());
+            benchmarks.put("findTasksByStatus", i -> fixture.manager.findTasksByStatus(TaskGenerator.STATUSES[i % TaskGenerator.STATUSES.length]).size());
+            benchmarks.put("topK(100)", i -> fixture.manager.topK(100).size());
+            benchmarks.put("tasksByPriorityPage", i -> fixture.manager.tasksByPriorityPage(fixture.map.get(fixture.ids[i & (KEYS - 1)]), 100).size());
+            benchmarks.put("tasksByPriority(all)", i -> walkPriorityOrder(fixture.manager));
+            benchmarks.put("taskAnalytics", i -> fixture.manager.getStatistics().getTotal());
+            benchmarks.put("analyticsRecompute", i -> TaskStatistics.compute(fixture.map.getAllValues()).getTotal());
+            benchmarks.put("editTask", i -> {
+                Task task = fixture.map.get(fixture.ids[i & (KEYS - 1)]);
+                fixture.manager.editTask(task.getId(), task.getName(), task.getDeadline(), task.getStatus(), task.getPriority() % 5 + 1);
+                return 1;
+            });
+            // The same 1000 reassignments as single calls and as one batch.
+            benchmarks.put("reassign1000", i -> {
+                for (int n = 0; n < 1000; n++) {
+                    fixture.manager.assignTaskToUser(fixture.ids[(i * 1000 + n) & (KEYS - 1)], "user" + (i & 7));
+                }
+                return 1000;
+            });
+            benchmarks.put("reassign1000Batch", i -> {
+                TaskBatch batch = new TaskBatch();
+                for (int n = 0; n < 1000; n++) {
+                    batch.assign(fixture.ids[(i * 1000 + n) & (KEYS - 1)], "user" + (i & 7));
+                }
+                return fixture.manager.applyBatch(batch).size();
+            });
+            // Adds new ids, so it runs after the read benchmarks.
+            benchmarks.put("addTask", i -> {
+                fixture.manager.addTask(fixture.generator.task(fixture.nextId++));
+                return 1;
+            });
+            benchmarks.put("exportToCSV", i -> {
+                fixture.manager.exportTasksToCSV(dir.resolve("export.csv").toString());
+                return 1;
+            });
+            benchmarks.put("importFromCSV", i -> {
+                TaskManager manager = new TaskManager();
+                manager.importTasksFromCSV(csv.toString());
+                return manager.getStatistics().getTotal();
+            });
+            benchmarks.put("importFromCSVParallel", i -> {
+                TaskManager manager = new TaskManager();
+                manager.importTasksFromCSVParallel(csv.toString());
+                return manager.getStatistics().getTotal();
+            });
+            // With a synchronous write-ahead log, where a single call waits for its own fsync and a batch
+            // waits once. These turn persistence on for the fixture, so they run last.
+            Path logDir = dir.resolve("wal");
+            benchmarks.put("reassign1000Durable", i -> {
+                fixture.persistTo(logDir);
+                for (int n = 0; n < 1000; n++) {
+                    fixture.manager.assignTaskToUser(fixture.ids[(i * 1000 + n) & (KEYS - 1)], "user" + (i & 7));
+                }
+                return 1000;
+            });
+            benchmarks.put("reassign1000DurableBatch", i -> {
+                fixture.persistTo(logDir);
+                TaskBatch batch = new TaskBatch();
+                for (int n = 0; n < 1000; n++) {
+                    batch.assign(fixture.ids[(i * 1000 + n) & (KEYS - 1)], "user" + (i & 7));
+                }
+                return fixture.manager.applyBatch(batch).size();
+            });
+
+            List<String[]> rows = new ArrayList<>();
+            for (Map.Entry<String, Operation> benchmark : benchmarks.entrySet()) {
+                if (only.isEmpty() || only.contains(benchmark.getKey())) {
+                    rows.add(run(benchmark.getKey(), size, benchmark.getValue()));
+                }
+            }
+            return rows;
+        } finally {
+            fixture.manager.closePersistence();
+            if (Files.exists(dir.resolve("wal"))) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(dir.resolve("wal"))) {
+                    for (Path file : files) {
+                        Files.delete(file);
+                    }
+                }
+                Files.delete(dir.resolve("wal"));
+            }
+            Files.deleteIfExists(dir.resolve("export.csv"));
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private static long walkPriorityOrder(final TaskManager manager) {
+        long count = 0;
+        List<Task> page = manager.tasksByPriorityPage(null, 10_000);
+        while (!page.isEmpty()) {
+            count += page.size();
+            page = manager.tasksByPriorityPage(page.get(page.size() - 1), 10_000);
+        }
+        return count;
+    }
+
+    private String[] run(final String name, final int size, final Operation operation) throws IOException {
+        int invocation = 0;
+        for (int i = 0; i < warmupIterations; i++) {
+            invocation = iterate(operation, invocation, false);
+        }
+        System.gc();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long gcCount = -gcCount();
+        long gcMillis = -gcMillis();
+        long allocated = -threads.getTotalThreadAllocatedBytes();
+        long started = System.nanoTime();
+        sampleCount = 0;
+        long calls = -invocation;
+        for (int i = 0; i < measuredIterations; i++) {
+            invocation = iterate(operation, invocation, true);
+        }
+        long elapsed = System.nanoTime() - started;
+        calls += invocation;
+        allocated += threads.getTotalThreadAllocatedBytes();
+        gcCount += gcCount();
+        gcMillis += gcMillis();
+
+        long[] sorted = Arrays.copyOf(samples, (int) Math.min(sampleCount, samples.length));
+        Arrays.sort(sorted);
+        return new String[]{name, Integer.toString(size), Long.toString(calls),
+                format(calls * 1e9 / elapsed), format(elapsed / 1e3 / calls),
+                format(percentile(sorted, 0.50) / 1e3), format(percentile(sorted, 0.99) / 1e3),
+                format(percentile(sorted, 0.999) / 1e3), format(sorted[sorted.length - 1] / 1e3),
+                Long.toString(allocated / calls), format(allocated / 1048576.0 / (elapsed / 1e9)),
+                Long.toString(gcCount), Long.toString(gcMillis)};
+    }
+
+    // Runs calls for one iteration's worth of time (at least one call), timing each of them.
+    private int iterate(final Operation operation, int invocation, final boolean record) throws IOException {
+        long deadline = System.nanoTime() + iterationNanos;
+        long result = 0;
+        long now;
+        do {
+            long before = System.nanoTime();
+            result += operation.run(invocation++);
+            now = System.nanoTime();
+            if (record) {
+                // Once the buffer is full, later calls overwrite earlier samples in turn.
+                samples[(int) (sampleCount++ % samples.length)] = now - before;
+            }
+        } while (now < deadline);
+        sink += result;
+        return invocation;
+    }
+
+    private static long percentile(final long[] sorted, final double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static String format(final double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private static void print(final String[] row, final String[] baseline) {
+        String change = "";
+        if (baseline != null) {
+            double before = Double.parseDouble(baseline[3]);
+            double after = Double.parseDouble(row[3]);
+            change = String.format(Locale.ROOT, "  %+.1f%% ops/s vs baseline", (after - before) * 100 / before);
+        }
+        CONSOLE.printf(Locale.ROOT, "%-24s %10s %12.1f %10.3f %10.3f %10.3f %10.3f %12s %10.1f %6s%s%n", row[0], row[1],
+                Double.parseDouble(row[3]), Double.parseDouble(row[4]), Double.parseDouble(row[5]),
+                Double.parseDouble(row[6]), Double.parseDouble(row[7]), row[9], Double.parseDouble(row[10]), row[11], change);
+    }
+
+    private static void writeResults(final Path file, final List<String[]> rows) throws IOException {
+        try (CsvWriter writer = new CsvWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.writeRecord(RESULT_HEADER);
+            for (String[] row : rows) {
+                writer.writeRecord(row);
+            }
+        }
+    }
+
+    // Keyed by "benchmark/size".
+    private static Map<String, String[]> readResults(final Path file) throws IOException {
+        Map<String, String[]> rows = new HashMap<>();
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), CustomHashMap.CSV_BUFFER_SIZE)) {
+            while (reader.next()) {
+                if (reader.fieldCount() != RESULT_HEADER.length || RESULT_HEADER[0].equals(reader.field(0))) {
+                    continue;
+                }
+                String[] row = new String[RESULT_HEADER.length];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = reader.field(i);
+                }
+                rows.put(row[0] + "/" + row[1], row);
+            }
+        }
+        return rows;
+    }
+
+    private interface Operation {
+        long run(int invocation) throws IOException;
+    }
+
+    // A populated manager plus pre-drawn random keys, so lookups do not allocate or call Random.
+    private static final class Fixture {
+        private final CustomHashMap<String, Task> map;
+        private final TaskManager manager;
+        private final TaskGenerator generator;
+        private final String[] ids;
+        private final String[] names;
+        private int nextId;
+        private boolean persistent;
+
+        Fixture(int size) {
+            map = new ConcurrentCustomHashMap<>();
+            manager = new TaskManager(map);
+            generator = new TaskGenerator(42, size);
+            for (nextId = 0; nextId < size; nextId++) {
+                manager.addTask(generator.task(nextId));
+            }
+            Random random = new Random(7);
+            ids = new String[KEYS];
+            names = new String[KEYS];
+            for (int i = 0; i < KEYS; i++) {
+                ids[i] = TaskGenerator.id(random.nextInt(size));
+                names[i] = map.get(ids[i]).getName();
+            }
+        }
+
+        void persistTo(final Path logDir) throws IOException {
+            if (!persistent) {
+                manager.openPersistence(logDir, WriteAheadLog.Durability.SYNC);
+                persistent = true;
+            }
+        }
+    }
+
+    // TaskManagerBenchmark.TaskGenerator Class
+    // Tasks shaped like real data: titles built from a small vocabulary so names repeat, a skewed
+    // spread of assignees (a few people own most tasks), deadlines within a year either side of a
+    // fixed reference day with a few missing, mostly open statuses and some reminders.
+    static final class TaskGenerator {
+        static final String[] STATUSES = {"Open", "In Progress", TaskManager.COMPLETED};
+        private static final String[] VERBS = {"Review", "Update", "Fix", "Write", "Plan", "Test", "Deploy",
+                "Refactor", "Document", "Prepare"};
+        private static final String[] SUBJECTS = {"budget", "release notes", "login page", "database schema",
+                "sprint backlog", "API docs", "onboarding guide", "CI pipeline", "invoice batch", "search index",
+                "quarterly report", "design mockups"};
+        private static final LocalDate REFERENCE_DAY = LocalDate.of(2026, 1, 1);
+
+        private final Random random;
+        private final int assignees;
+
+        TaskGenerator(long seed, int size) {
+            this.random = new Random(seed);
+            this.assignees = Math.max(10, (int) Math.sqrt(size));
+        }
+
+        static String id(final int n) {
+            return "T" + n;
+        }
+
+        Task task(final int n) {
+            String name = VERBS[random.nextInt(VERBS.length)] + " " + SUBJECTS[random.nextInt(SUBJECTS.length)]
+                    + " #" + random.nextInt(1000);
+            LocalDate due = random.nextInt(100) < 3 ? null : REFERENCE_DAY.plusDays(random.nextInt(730) - 365);
+            int roll = random.nextInt(100);
+            String status = roll < 55 ? STATUSES[0] : roll < 80 ? STATUSES[1] : STATUSES[2];
+            int priority = 1 + Math.min(random.nextInt(5), random.nextInt(5));
+            String assignee = random.nextInt(100) < 20 ? null
+                    : "user" + (int) (assignees * Math.pow(random.nextDouble(), 2));
+            String reminder = due != null && random.nextInt(100) < 10 ? due.minusDays(1) + " 09:00" : null;
+            return Task.builder(id(n)).name(name).deadline(due == null ? null : due.toString()).status(status)
+                    .priority(priority).assignedTo(assignee).reminder(reminder).build();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package taskmanager;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// TaskManagerStress Class
+// Multithreaded stress test for TaskManager. Writer threads increment the priority of a small set
+// of shared tasks through updateTask, so most updates race with another one on the same task, and
+// each writer also adds and deletes tasks of its own. Reader threads query the whole time. At the
+// end every shared task's priority must equal the number of increments made to it, the store must
+// hold exactly the tasks that were not deleted, and the indexes must agree with the store.
+// Exits with status 1 on a lost update or a mismatch.
+//
+// Usage: java taskmanager.TaskManagerStress [--threads 8] [--readers 2] [--tasks 16]
+//            [--updates 100000] [--columnar]
+// --updates is per writer thread.
+final class TaskManagerStress {
+    private TaskManagerStress() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = 8;
+        int readers = 2;
+        int tasks = 16;
+        int updates = 100_000;
+        boolean columnar = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--readers":
+                    readers = Integer.parseInt(args[++i]);
+                    break;
+                case "--tasks":
+                    tasks = Integer.parseInt(args[++i]);
+                    break;
+                case "--updates":
+                    updates = Integer.parseInt(args[++i]);
+                    break;
+                case "--columnar":
+                    columnar = true;
+                    break;
+                default:
+                    System.out.println("Unknown option " + args[i]);
+                    return;
+            }
+        }
+
+        TaskManager manager = new TaskManager(columnar ? new ColumnarTaskMap() : new ConcurrentCustomHashMap<>());
+        for (int i = 0; i < tasks; i++) {
+            manager.addTask(Task.builder(sharedId(i)).name("shared " + i).deadline("2030-01-01").status("Pending").priority(0).build());
+        }
+
+        final int taskCount = tasks;
+        final int updatesPerThread = updates;
+        AtomicLongArray increments = new AtomicLongArray(tasks);
+        long[] kept = new long[threads];
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch writersDone = new CountDownLatch(threads);
+        List<Thread> all = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int writer = t;
+            all.add(new Thread(() -> {
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long[] mine = new long[taskCount];
+                    int owned = 0;
+                    for (int n = 0; n < updatesPerThread; n++) {
+                        int shared = random.nextInt(taskCount);
+                        if (manager.updateTask(sharedId(shared), task -> task.withPriority(task.getPriority() + 1)) != null) {
+                            mine[shared]++;
+                        }
+                        // Churn: add one own task every 8 updates and delete every other one again.
+                        if ((n & 7) == 0) {
+                            String id = "w" + writer + "-" + owned;
+                            manager.addTask(Task.builder(id).name("own " + id).deadline("2031-02-0" + (1 + owned % 9))
+                                    .status(owned % 3 == 0 ? TaskManager.COMPLETED : "Pending").priority(owned % 5)
+                                    .assignedTo("user" + (owned & 3)).build());
+                            if ((owned & 1) == 1 && manager.deleteTask("w" + writer + "-" + (owned - 1)) == null) {
+                                throw new IllegalStateException("Task w" + writer + "-" + (owned - 1) + " vanished before its delete.");
+                            }
+                            owned++;
+                        }
+                    }
+                    kept[writer] = owned - owned / 2;
+                    for (int i = 0; i < taskCount; i++) {
+                        increments.addAndGet(i, mine[i]);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    writersDone.countDown();
+                }
+            }, "writer-" + t));
+        }
+        for (int r = 0; r < readers; r++) {
+            all.add(new Thread(() -> {
+                try {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (writersDone.getCount() > 0) {
+                        Task task = manager.getTask(sharedId(random.nextInt(taskCount)));
+                        if (task == null) {
+                            throw new IllegalStateException("A shared task disappeared.");
+                        }
+                        manager.findTasksByStatus("Pending");
+                        manager.tasksByPriorityPage(null, 50);
+                        manager.findTasksAssignedTo("user" + random.nextInt(4));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }, "reader-" + r));
+        }
+
+        long started = System.nanoTime();
+        all.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : all) {
+            thread.join();
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+
+        List<String> problems = new ArrayList<>();
+        for (Throwable failure : failures) {
+            problems.add("Thread failed: " + failure);
+        }
+        long lost = 0;
+        for (int i = 0; i < tasks; i++) {
+            long expected = increments.get(i);
+            long actual = manager.getTask(sharedId(i)).getPriority();
+            if (actual != expected) {
+                lost += expected - actual;
+                problems.add(sharedId(i) + " has priority " + actual + " after " + expected + " increments.");
+            }
+        }
+        long expectedSize = tasks;
+        for (long n : kept) {
+            expectedSize += n;
+        }
+        List<Task> stored = manager.tasksByPriorityPage(null, Integer.MAX_VALUE);
+        if (stored.size() != expectedSize) {
+            problems.add("Priority index lists " + stored.size() + " tasks, expected " + expectedSize + ".");
+        }
+        if (!TaskStatistics.compute(stored).equals(manager.getStatistics())) {
+            problems.add("Maintained analytics do not match a recompute.");
+        }
+        int assigned = 0;
+        for (int u = 0; u < 4; u++) {
+            assigned += manager.findTasksAssignedTo("user" + u).size();
+        }
+        if (assigned != expectedSize - tasks) {
+            problems.add("Assignee partitions hold " + assigned + " tasks, expected " + (expectedSize - tasks) + ".");
+        }
+
+        System.out.println(threads + " writers x " + updates + " updates on " + tasks + " shared tasks, " + readers
+                + " readers, " + millis + " ms.");
+        if (problems.isEmpty()) {
+            System.out.println("OK: no lost updates; store and indexes agree.");
+            return;
+        }
+        System.out.println("FAILED" + (lost > 0 ? ": " + lost + " lost update(s)" : "") + ":");
+        problems.forEach(problem -> System.out.println("  " + problem));
+        System.exit(1);
+    }
+
+    private static String sharedId(final int index) {
+        return "s" + index;
+    }
+}
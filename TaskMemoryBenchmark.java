@@ -0,0 +1,144 @@
+package taskmanager;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Supplier;
+
+// TaskMemoryBenchmark Class
+// Heap cost per task of the object store (ConcurrentCustomHashMap of Task objects) against the
+// columnar store (ColumnarTaskMap) and the off-heap store (MappedTaskMap, in a temporary
+// directory). Each store is measured alone, and again inside a full TaskManager with every index
+// populated. Figures are heap in use after a full GC, minus the same before the store was built.
+// Also reports how long that full GC took with the store live, which follows the number of
+// objects the collector has to trace, and the cost of a get().
+// Generated status strings are copied per task, as a CSV import would produce them.
+//
+// Usage: java -Xmx4g taskmanager.TaskMemoryBenchmark [--tasks 1000000] [--gets 2000000]
+final class TaskMemoryBenchmark {
+    private static final PrintStream CONSOLE = System.out;
+    private static volatile long sink;
+
+    private TaskMemoryBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int tasks = 1_000_000;
+        int gets = 2_000_000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--tasks":
+                    tasks = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--gets":
+                    gets = Integer.parseInt(args[i + 1]);
+                    break;
+                default:
+                    CONSOLE.println("Unknown option " + args[i]);
+                    return;
+            }
+        }
+        CONSOLE.printf("%-28s %10s %14s %12s %12s%n", "Store", "Tasks", "bytes/task", "full GC ms", "get ns");
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            measureStore("ConcurrentCustomHashMap", ConcurrentCustomHashMap::new, tasks, gets);
+            measureStore("ColumnarTaskMap", ColumnarTaskMap::new, tasks, gets);
+            measureStore("MappedTaskMap", TaskMemoryBenchmark::mappedStore, tasks, gets);
+            measureManager("TaskManager (objects)", ConcurrentCustomHashMap::new, tasks);
+            measureManager("TaskManager (columnar)", ColumnarTaskMap::new, tasks);
+            measureManager("TaskManager (mapped)", TaskMemoryBenchmark::mappedStore, tasks);
+        } finally {
+            System.setOut(CONSOLE);
+        }
+    }
+
+    private static void measureStore(final String label, final Supplier<CustomHashMap<String, Task>> store,
+                                     final int tasks, final int gets) {
+        long before = heapAfterGc();
+        CustomHashMap<String, Task> map = store.get();
+        TaskManagerBenchmark.TaskGenerator generator = new TaskManagerBenchmark.TaskGenerator(42, tasks);
+        for (int n = 0; n < tasks; n++) {
+            Task task = asImported(generator.task(n));
+            map.put(task.getId(), task);
+        }
+        long gcStarted = System.nanoTime();
+        long after = heapAfterGc();
+        long gcNanos = System.nanoTime() - gcStarted;
+        long getNanos = timeGets(map, tasks, gets);
+        report(label, tasks, after - before, gcNanos, getNanos);
+        sink += map.size();
+    }
+
+    private static void measureManager(final String label, final Supplier<CustomHashMap<String, Task>> store,
+                                       final int tasks) {
+        long before = heapAfterGc();
+        TaskManager manager = new TaskManager(store.get());
+        TaskManagerBenchmark.TaskGenerator generator = new TaskManagerBenchmark.TaskGenerator(42, tasks);
+        for (int n = 0; n < tasks; n++) {
+            manager.addTask(asImported(generator.task(n)));
+        }
+        long gcStarted = System.nanoTime();
+        long after = heapAfterGc();
+        long gcNanos = System.nanoTime() - gcStarted;
+        report(label, tasks, after - before, gcNanos, -1);
+        sink += manager.getStatistics().getTotal();
+        manager.stopReminders();
+    }
+
+    // Random gets, each touching a field so a built Task is not optimised away.
+    private static long timeGets(final CustomHashMap<String, Task> map, final int tasks, final int gets) {
+        Random random = new Random(7);
+        String[] ids = new String[1 << 16];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = TaskManagerBenchmark.TaskGenerator.id(random.nextInt(tasks));
+        }
+        long total = 0;
+        for (int round = 0; round < 2; round++) {
+            long started = System.nanoTime();
+            for (int i = 0; i < gets; i++) {
+                total += map.get(ids[i & (ids.length - 1)]).getPriority();
+            }
+            if (round == 1) {
+                sink += total;
+                return (System.nanoTime() - started) / gets;
+            }
+        }
+        return -1;
+    }
+
+    // The files are deleted when the benchmark exits; the mapping stays open until then.
+    private static CustomHashMap<String, Task> mappedStore() {
+        try {
+            Path directory = Files.createTempDirectory("task-memory");
+            directory.toFile().deleteOnExit();
+            directory.resolve("tasks.dat").toFile().deleteOnExit();
+            directory.resolve("tasks.idx").toFile().deleteOnExit();
+            return new MappedTaskMap(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Task asImported(final Task task) {
+        return task.toBuilder().status(new String(task.getStatus())).build();
+    }
+
+    private static long heapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void report(final String label, final int tasks, final long bytes, final long gcNanos, final long getNanos) {
+        CONSOLE.printf(Locale.ROOT, "%-28s %10d %14.1f %12.1f %12s%n", label, tasks, (double) bytes / tasks,
+                gcNanos / 3 / 1e6, getNanos < 0 ? "-" : Long.toString(getNanos));
+    }
+}
@@ -0,0 +1,361 @@
+package taskmanager;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// TaskMetrics Class
+// Built-in metrics for TaskManager. Each operation has a call count, an error count and a latency
+// histogram, and there are gauges for the store's size and memory. Recording a call costs two
+// nanoTime reads and a few uncontended atomic adds, with no allocation, so it stays on in
+// production. Read them over JMX (domain "taskmanager") or as text from dump().
+//
+// The histograms are HDR-style: log-linear buckets of 16 per power of two, so any recorded
+// latency is within 1/16 (6.25%) of its true value, from 1 ns up to about 18 minutes. Counts are
+// striped by thread, as LongAdder does, so concurrent callers rarely hit the same cache line; a
+// snapshot sums the stripes.
+class TaskMetrics {
+    static final String JMX_DOMAIN = "taskmanager";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final List<ObjectName> registered = new ArrayList<>();
+    private volatile boolean exported;
+
+    // The named operation, created on first use. Looking up an existing one does not allocate.
+    public Operation operation(final String name) {
+        Operation operation = operations.get(name);
+        if (operation == null) {
+            operation = operations.computeIfAbsent(name, Operation::new);
+            if (exported) {
+                register(operation);
+            }
+        }
+        return operation;
+    }
+
+    // A value read when metrics are dumped or polled over JMX, such as the number of tasks.
+    public void gauge(final String name, final LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public SortedMap<String, Operation> operations() {
+        return new TreeMap<>(operations);
+    }
+
+    public SortedMap<String, Long> gaugeValues() {
+        SortedMap<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            values.put(gauge.getKey(), gauge.getValue().getAsLong());
+        }
+        return values;
+    }
+
+    // Registers an MBean for the gauges and one per operation, including operations first used
+    // later. Returns false if another instance already holds the names in this JVM.
+    public synchronized boolean registerMBeans() {
+        try {
+            ObjectName store = new ObjectName(JMX_DOMAIN, "type", "Store");
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new StoreBean(this), store);
+            registered.add(store);
+        } catch (InstanceAlreadyExistsException e) {
+            return false;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics MBeans", e);
+        }
+        exported = true;
+        for (Operation operation : operations().values()) {
+            register(operation);
+        }
+        return true;
+    }
+
+    private synchronized void register(final Operation operation) {
+        try {
+            ObjectName name = new ObjectName(JMX_DOMAIN, new Hashtable<>(Map.of("type", "Operation", "name", operation.name)));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new OperationBean(operation), name);
+            registered.add(name);
+        } catch (InstanceAlreadyExistsException e) {
+            // Registered by a concurrent first use.
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics MBean for " + operation.name, e);
+        }
+    }
+
+    public synchronized void unregisterMBeans() {
+        exported = false;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                // Already gone.
+            }
+        }
+        registered.clear();
+    }
+
+    // Prometheus text exposition format: a summary per operation (seconds) plus the gauges.
+    public String dump() {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# HELP taskmanager_operation_seconds Latency of TaskManager operations, including lock waits.\n");
+        out.append("# TYPE taskmanager_operation_seconds summary\n");
+        for (Operation operation : operations().values()) {
+            Snapshot snapshot = operation.snapshot();
+            String label = "operation=\"" + operation.name + "\"";
+            for (double quantile : QUANTILES) {
+                out.append("taskmanager_operation_seconds{").append(label).append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(snapshot.percentile(quantile))).append('\n');
+            }
+            out.append("taskmanager_operation_seconds_sum{").append(label).append("} ").append(seconds(snapshot.totalNanos)).append('\n');
+            out.append("taskmanager_operation_seconds_count{").append(label).append("} ").append(snapshot.count).append('\n');
+        }
+        out.append("# TYPE taskmanager_operation_seconds_max gauge\n");
+        for (Operation operation : operations().values()) {
+            out.append("taskmanager_operation_seconds_max{operation=\"").append(operation.name).append("\"} ")
+                    .append(seconds(operation.maxNanos())).append('\n');
+        }
+        out.append("# TYPE taskmanager_operation_errors_total counter\n");
+        for (Operation operation : operations().values()) {
+            out.append("taskmanager_operation_errors_total{operation=\"").append(operation.name).append("\"} ")
+                    .append(operation.errors()).append('\n');
+        }
+        for (Map.Entry<String, Long> gauge : gaugeValues().entrySet()) {
+            out.append("# TYPE taskmanager_").append(gauge.getKey()).append(" gauge\n");
+            out.append("taskmanager_").append(gauge.getKey()).append(' ').append(gauge.getValue()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static String seconds(final long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+
+    // TaskMetrics.Operation Class
+    // Counters and latency histogram of one operation. Thread-safe and allocation-free to record.
+    static final class Operation {
+        private static final int SUB_BITS = 4;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        private static final int MAX_EXPONENT = 40;
+        static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+        private static final int STRIPES = Math.min(16, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+
+        private final String name;
+        // Stripe s holds its buckets at [s * BUCKETS, (s + 1) * BUCKETS).
+        private final AtomicLongArray counts = new AtomicLongArray(STRIPES * BUCKETS);
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Operation(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        // For a call that started at the given System.nanoTime().
+        public void record(final long startedNanos) {
+            recordNanos(System.nanoTime() - startedNanos);
+        }
+
+        public void recordNanos(final long nanos) {
+            long value = Math.max(0, nanos);
+            int stripe = (int) Thread.currentThread().threadId() & (STRIPES - 1);
+            counts.incrementAndGet(stripe * BUCKETS + bucket(value));
+            totalNanos.add(value);
+            maxNanos.accumulate(value);
+        }
+
+        // Counted as a call as well, with its latency, when recorded through record().
+        public void failed() {
+            errors.increment();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+
+        public long maxNanos() {
+            return maxNanos.get();
+        }
+
+        public Snapshot snapshot() {
+            long[] buckets = new long[BUCKETS];
+            long count = 0;
+            for (int stripe = 0; stripe < STRIPES; stripe++) {
+                for (int i = 0; i < BUCKETS; i++) {
+                    long n = counts.get(stripe * BUCKETS + i);
+                    buckets[i] += n;
+                    count += n;
+                }
+            }
+            return new Snapshot(buckets, count, totalNanos.sum(), maxNanos.get());
+        }
+
+        // Values below 16 get a bucket each; above, each power of two is split into 16 equal parts.
+        static int bucket(final long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+            int sub = exponent == 63 - Long.numberOfLeadingZeros(value)
+                    ? (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1) : SUB_BUCKETS - 1;
+            return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        // Smallest value that falls into the bucket.
+        static long lowerBound(final int bucket) {
+            if (bucket < SUB_BUCKETS) {
+                return bucket;
+            }
+            int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+            return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+        }
+    }
+
+    // TaskMetrics.Snapshot Class
+    // Merged histogram of one operation at one moment.
+    static final class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        Snapshot(long[] buckets, long count, long totalNanos, long maxNanos) {
+            this.buckets = buckets;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public long meanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        // Middle of the bucket holding the given fraction of calls, capped at the maximum seen.
+        public long percentile(final double fraction) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    long low = Operation.lowerBound(i);
+                    long high = i + 1 < Operation.BUCKETS ? Operation.lowerBound(i + 1) : low;
+                    return Math.min((low + high) / 2, maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+    }
+
+    // JMX views. MXBean interfaces have to be public.
+
+    public interface OperationMXBean {
+        long getCalls();
+
+        long getErrors();
+
+        double getMeanMillis();
+
+        double getP50Millis();
+
+        double getP90Millis();
+
+        double getP99Millis();
+
+        double getP999Millis();
+
+        double getMaxMillis();
+    }
+
+    public interface StoreMXBean {
+        Map<String, Long> getGauges();
+    }
+
+    private static final class OperationBean implements OperationMXBean {
+        private final Operation operation;
+
+        OperationBean(Operation operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public long getCalls() {
+            return operation.snapshot().getCount();
+        }
+
+        @Override
+        public long getErrors() {
+            return operation.errors();
+        }
+
+        @Override
+        public double getMeanMillis() {
+            return operation.snapshot().meanNanos() / 1e6;
+        }
+
+        @Override
+        public double getP50Millis() {
+            return operation.snapshot().percentile(0.5) / 1e6;
+        }
+
+        @Override
+        public double getP90Millis() {
+            return operation.snapshot().percentile(0.9) / 1e6;
+        }
+
+        @Override
+        public double getP99Millis() {
+            return operation.snapshot().percentile(0.99) / 1e6;
+        }
+
+        @Override
+        public double getP999Millis() {
+            return operation.snapshot().percentile(0.999) / 1e6;
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return operation.maxNanos() / 1e6;
+        }
+    }
+
+    private static final class StoreBean implements StoreMXBean {
+        private final TaskMetrics metrics;
+
+        StoreBean(TaskMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Map<String, Long> getGauges() {
+            return metrics.gaugeValues();
+        }
+    }
+}
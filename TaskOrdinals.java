@@ -0,0 +1,64 @@
+package taskmanager;
+
+import java.util.*;
+
+// TaskOrdinals Class
+// Dense int numbering of task ids, shared by the indexes that key their postings and bitmaps by
+// ordinal. Ordinals of removed tasks are reused, so the numbering stays dense under churn.
+class TaskOrdinals {
+    private final Map<String, Integer> ordinals;
+    private String[] ids;
+    private int[] free;
+    private int freeCount;
+    private int next;
+
+    public TaskOrdinals() {
+        ordinals = new HashMap<>();
+        ids = new String[1024];
+        free = new int[64];
+    }
+
+    public int assign(final String id) {
+        Integer existing = ordinals.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = freeCount > 0 ? free[--freeCount] : next++;
+        if (ordinal == ids.length) {
+            ids = Arrays.copyOf(ids, ordinal * 2);
+        }
+        ids[ordinal] = id;
+        ordinals.put(id, ordinal);
+        return ordinal;
+    }
+
+    // -1 when the id has no ordinal.
+    public int of(final String id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    public String idOf(final int ordinal) {
+        return ids[ordinal];
+    }
+
+    // Call once every index has dropped the ordinal; it may be handed out again straight away.
+    public void release(final String id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        ids[ordinal] = null;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = ordinal;
+    }
+
+    public void clear() {
+        ordinals.clear();
+        Arrays.fill(ids, null);
+        freeCount = 0;
+        next = 0;
+    }
+}
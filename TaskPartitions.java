@@ -0,0 +1,206 @@
+package taskmanager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// TaskPartitions Class
+// Task storage split by assignee, with unassigned tasks in a partition of their own. Each
+// partition has its own read/write lock, so listing one user's tasks touches only that user's
+// shard. It never waits on the store-wide lock, or on writes to other users' partitions.
+// TaskManager still applies every mutation under its store lock, because the other indexes need
+// it. The partition locks are always taken inside that lock, so the two kinds of lock never form a cycle.
+// TaskManager swaps a task in the store inside locked(), with the partitions it leaves and joins
+// write-locked, and readers resolve ids under the partition read lock, so a reassigned task is
+// found in exactly one partition. Bulk loads that replace the store wholesale run inside
+// reloading(), which keeps listings out until reload() has swapped in the matching partitions.
+// A partition is dropped once it empties, so users who come and go do not leave locks behind.
+// Partitions hold ids, not tasks, so a store that builds tasks on demand (ColumnarTaskMap) is
+// not defeated by a second copy of every task here. Ids are resolved through the store, which
+// must allow reads alongside a writer.
+class TaskPartitions {
+    private static final AtomicLong NEXT_ORDER = new AtomicLong();
+
+    private final Function<String, Task> lookup;
+    // Held for writing across a bulk load and its reload(), and for reading by every listing.
+    private final ReentrantReadWriteLock layout = new ReentrantReadWriteLock();
+    private volatile Map<String, Partition> byAssignee;
+    private volatile Partition unassigned;
+
+    public TaskPartitions(Function<String, Task> lookup) {
+        this.lookup = lookup;
+        byAssignee = new ConcurrentHashMap<>();
+        unassigned = new Partition(null);
+    }
+
+    public void add(final Task task) {
+        Partition partition = partitionFor(task.getAssignedTo(), true);
+        partition.lock.writeLock().lock();
+        try {
+            partition.ids.add(task.getId());
+        } finally {
+            partition.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(final Task task) {
+        Partition partition = partitionFor(task.getAssignedTo(), false);
+        if (partition == null) {
+            return;
+        }
+        partition.lock.writeLock().lock();
+        try {
+            partition.ids.remove(task.getId());
+        } finally {
+            partition.lock.writeLock().unlock();
+        }
+    }
+
+    public void update(final Task previous, final Task updated) {
+        if (Objects.equals(previous.getAssignedTo(), updated.getAssignedTo())) {
+            return;
+        }
+        Partition from = partitionFor(previous.getAssignedTo(), true);
+        Partition to = partitionFor(updated.getAssignedTo(), true);
+        // A fixed lock order keeps two concurrent moves in opposite directions from deadlocking.
+        Partition first = from.order < to.order ? from : to;
+        Partition second = first == from ? to : from;
+        first.lock.writeLock().lock();
+        second.lock.writeLock().lock();
+        try {
+            from.ids.remove(previous.getId());
+            to.ids.add(updated.getId());
+        } finally {
+            second.lock.writeLock().unlock();
+            first.lock.writeLock().unlock();
+        }
+    }
+
+    // Runs a store change with the write locks of the named assignees' partitions held (null names
+    // the unassigned tasks). Locks are taken in partition creation order, so two changes never deadlock.
+    // Every add, remove and update must run inside one, under the store lock. Partitions the change
+    // leaves empty are dropped before their locks are released.
+    public <T> T locked(final Collection<String> assignees, final Supplier<T> change) {
+        List<Partition> partitions = new ArrayList<>(assignees.size());
+        for (String assignee : assignees) {
+            Partition partition = partitionFor(assignee, true);
+            if (!partitions.contains(partition)) {
+                partitions.add(partition);
+            }
+        }
+        partitions.sort(Comparator.comparingLong(partition -> partition.order));
+        for (Partition partition : partitions) {
+            partition.lock.writeLock().lock();
+        }
+        try {
+            return change.get();
+        } finally {
+            for (int i = partitions.size() - 1; i >= 0; i--) {
+                Partition partition = partitions.get(i);
+                if (partition != unassigned && partition.ids.isEmpty()) {
+                    byAssignee.remove(partition.assignee, partition);
+                }
+                partition.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Runs a change that replaces the store's contents and ends in reload(); listings wait for it
+    // rather than resolve old partitions against the new store.
+    public <T> T reloading(final Supplier<T> change) {
+        layout.writeLock().lock();
+        try {
+            return change.get();
+        } finally {
+            layout.writeLock().unlock();
+        }
+    }
+
+    // Replaces every partition at once; readers see either the old layout or the new one.
+    public void reload(final Collection<Task> tasks) {
+        Map<String, Partition> partitions = new ConcurrentHashMap<>();
+        Partition none = new Partition(null);
+        for (Task task : tasks) {
+            String assignee = task.getAssignedTo();
+            Partition partition = assignee == null ? none : partitions.computeIfAbsent(assignee, Partition::new);
+            partition.ids.add(task.getId());
+        }
+        byAssignee = partitions;
+        unassigned = none;
+    }
+
+    public void clear() {
+        reload(Collections.emptyList());
+    }
+
+    // Pass null for the unassigned tasks. Ids are resolved under the partition's read lock, so a
+    // task cannot move out of the partition between reading its id and resolving it. A partition
+    // dropped after it was looked up reads as empty, as it was when dropped.
+    public List<Task> tasksOf(final String assignee) {
+        layout.readLock().lock();
+        try {
+            Partition partition = partitionFor(assignee, false);
+            if (partition == null) {
+                return new ArrayList<>();
+            }
+            partition.lock.readLock().lock();
+            try {
+                List<Task> tasks = new ArrayList<>(partition.ids.size());
+                for (String id : partition.ids) {
+                    tasks.add(lookup.apply(id));
+                }
+                return tasks;
+            } finally {
+                partition.lock.readLock().unlock();
+            }
+        } finally {
+            layout.readLock().unlock();
+        }
+    }
+
+    public int countOf(final String assignee) {
+        layout.readLock().lock();
+        try {
+            Partition partition = partitionFor(assignee, false);
+            if (partition == null) {
+                return 0;
+            }
+            partition.lock.readLock().lock();
+            try {
+                return partition.ids.size();
+            } finally {
+                partition.lock.readLock().unlock();
+            }
+        } finally {
+            layout.readLock().unlock();
+        }
+    }
+
+    public Set<String> assignees() {
+        return Collections.unmodifiableSet(byAssignee.keySet());
+    }
+
+    // Adds and drops both happen inside locked() under the store lock, so an add never races the
+    // drop of the partition it is adding to.
+    private Partition partitionFor(final String assignee, final boolean create) {
+        if (assignee == null) {
+            return unassigned;
+        }
+        Map<String, Partition> partitions = byAssignee;
+        return create ? partitions.computeIfAbsent(assignee, Partition::new) : partitions.get(assignee);
+    }
+
+    private static final class Partition {
+        private final String assignee;
+        private final long order = NEXT_ORDER.getAndIncrement();
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Set<String> ids = new LinkedHashSet<>();
+
+        Partition(String assignee) {
+            this.assignee = assignee;
+        }
+    }
+}
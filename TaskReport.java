@@ -0,0 +1,243 @@
+package taskmanager;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+// TaskReport Class
+// Streams tasks to an output stream in priority or deadline order. Tasks are read from the order
+// index a page at a time under the read lock and written after it is released, so memory holds one
+// page whatever the size of the store, and writers are not held up while a slow file or terminal
+// drains. Formats:
+//   CSV    the export layout, with a header row
+//   JSONL  one task object per line, as the HTTP API returns it
+//   TEXT   fixed-width columns for the console; long values are cut short with "..."
+// A report can stop after limit tasks. nextCursor() then names the last task written, and a report
+// started after() that cursor continues right behind it, even if tasks were edited in between:
+//   TaskReport first = manager.report().limit(20);
+//   first.write(System.out);
+//   manager.report().after(first.nextCursor()).limit(20).write(System.out);
+class TaskReport {
+    enum Format { CSV, JSONL, TEXT }
+
+    enum Order { PRIORITY, DEADLINE }
+
+    static final int DEFAULT_PAGE_SIZE = 512;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final TaskCsvCodec CSV_CODEC = new TaskCsvCodec();
+    // Fixed-width columns; the reminder takes the rest of the line.
+    private static final String[] COLUMNS = {"ID", "Name", "Deadline", "Status", "Pri", "Assigned To", "Reminder"};
+    private static final int[] WIDTHS = {12, 30, 10, 12, 4, 16, 0};
+
+    private final TaskManager manager;
+    private Format format = Format.TEXT;
+    private Order order = Order.PRIORITY;
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private long limit = Long.MAX_VALUE;
+    // The task the report starts after, rebuilt from a cursor; null starts at the beginning.
+    private Task after;
+    private String nextCursor;
+
+    TaskReport(TaskManager manager) {
+        this.manager = manager;
+    }
+
+    public TaskReport format(final Format format) {
+        this.format = format;
+        return this;
+    }
+
+    public TaskReport order(final Order order) {
+        this.order = order;
+        return this;
+    }
+
+    // Tasks read per lock hold.
+    public TaskReport pageSize(final int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+        return this;
+    }
+
+    public TaskReport limit(final long limit) {
+        this.limit = Math.max(0, limit);
+        return this;
+    }
+
+    // Starts after the task the cursor names; a null cursor starts at the beginning. Throws
+    // IllegalArgumentException for a cursor that nextCursor() did not produce.
+    public TaskReport after(final String cursor) {
+        this.after = cursor == null ? null : parseCursor(cursor);
+        return this;
+    }
+
+    // After write(): the cursor to continue from when the limit left tasks unwritten, else null.
+    public String nextCursor() {
+        return nextCursor;
+    }
+
+    // Writes the report and returns how many tasks it holds. The stream is flushed, not closed.
+    public long write(final OutputStream out) throws IOException {
+        Sink sink = sink(out);
+        Task last = after;
+        long written = 0;
+        boolean more = false;
+        nextCursor = null;
+        while (written < limit) {
+            int wanted = (int) Math.min(pageSize, limit - written);
+            // One task past the page tells whether anything follows it.
+            int fetch = (int) Math.min(Integer.MAX_VALUE, wanted + 1L);
+            List<Task> page = order == Order.DEADLINE
+                    ? manager.tasksByDeadlinePage(last, fetch)
+                    : manager.tasksByPriorityPage(last, fetch);
+            int count = Math.min(wanted, page.size());
+            for (int i = 0; i < count; i++) {
+                sink.write(page.get(i));
+            }
+            written += count;
+            more = page.size() > wanted;
+            if (!more) {
+                break;
+            }
+            last = page.get(count - 1);
+        }
+        sink.flush();
+        nextCursor = more ? cursorOf(last) : null;
+        return written;
+    }
+
+    // A cursor holds the sort fields of a task, so it does not depend on the task still existing.
+    // Layout before Base64: priority ':' id-length ':' id, then '=' deadline if there is one.
+    static String cursorOf(final Task task) {
+        String raw = task.getPriority() + ":" + task.getId().length() + ":" + task.getId()
+                + (task.getDeadline() == null ? "" : "=" + task.getDeadline());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Task parseCursor(final String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf(':');
+            int second = raw.indexOf(':', first + 1);
+            int priority = Integer.parseInt(raw.substring(0, first));
+            int idEnd = second + 1 + Integer.parseInt(raw.substring(first + 1, second));
+            String id = raw.substring(second + 1, idEnd);
+            String deadline = null;
+            if (idEnd < raw.length()) {
+                if (raw.charAt(idEnd) != '=') {
+                    throw new IllegalArgumentException();
+                }
+                deadline = raw.substring(idEnd + 1);
+            }
+            return Task.builder(id).deadline(deadline).priority(priority).build();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid report cursor.");
+        }
+    }
+
+    private Sink sink(final OutputStream out) throws IOException {
+        switch (format) {
+            case CSV:
+                return new CsvSink(out);
+            case JSONL:
+                return new JsonLinesSink(out);
+            default:
+                return new TextSink(out);
+        }
+    }
+
+    private interface Sink {
+        void write(Task task) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    private static final class CsvSink implements Sink {
+        private final CsvWriter csv;
+
+        CsvSink(OutputStream out) throws IOException {
+            csv = new CsvWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+            csv.writeRecord(CSV_CODEC.header());
+        }
+
+        @Override
+        public void write(final Task task) throws IOException {
+            CSV_CODEC.encode(task, csv);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            csv.flush();
+        }
+    }
+
+    private static final class JsonLinesSink implements Sink {
+        private final JsonWriter json;
+
+        JsonLinesSink(OutputStream out) {
+            json = new JsonWriter(out, BUFFER_SIZE);
+        }
+
+        @Override
+        public void write(final Task task) throws IOException {
+            TaskServer.writeTask(json, task);
+            json.newline();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+    }
+
+    private static final class TextSink implements Sink {
+        private final Writer out;
+        private final StringBuilder line = new StringBuilder(128);
+
+        TextSink(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writeLine(COLUMNS);
+            line.setLength(0);
+            for (int width : WIDTHS) {
+                line.append("-".repeat(width == 0 ? 20 : width)).append(' ');
+            }
+            line.setLength(line.length() - 1);
+            this.out.append(line).write('\n');
+        }
+
+        @Override
+        public void write(final Task task) throws IOException {
+            writeLine(task.getId(), task.getName(), task.getDeadline(), task.getStatus(), String.valueOf(task.getPriority()),
+                    task.getAssignedTo(), task.getReminder());
+        }
+
+        private void writeLine(final String... cells) throws IOException {
+            line.setLength(0);
+            for (int i = 0; i < cells.length; i++) {
+                String cell = cells[i] == null ? "" : cells[i];
+                int width = WIDTHS[i];
+                if (width == 0) {
+                    line.append(cell);
+                } else if (cell.length() > width) {
+                    line.append(cell, 0, width - 3).append("...").append(' ');
+                } else {
+                    line.append(cell);
+                    for (int pad = cell.length(); pad <= width; pad++) {
+                        line.append(' ');
+                    }
+                }
+            }
+            // No trailing blanks when the last cell is empty.
+            int end = line.length();
+            while (end > 0 && line.charAt(end - 1) == ' ') {
+                end--;
+            }
+            line.setLength(end);
+            out.append(line).write('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
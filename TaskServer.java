@@ -0,0 +1,607 @@
+package taskmanager;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// TaskServer Class
+// HTTP/JSON front-end for TaskManager on the JDK's built-in com.sun.net.httpserver. Every request
+// runs on its own virtual thread, so a handler waiting on the store lock or a durable log write
+// does not hold a platform thread. Clients log in with POST /sessions and send the returned token
+// as "Authorization: Bearer <token>" on every task request.
+// Parameters come from the query string or a form-encoded body; responses are JSON.
+//
+//   POST   /users                 username, password              register
+//   POST   /sessions              username, password              log in, returns {"token": ...}
+//   DELETE /sessions                                              log out
+//   GET    /tasks                 one of name, q, status, assignee, mine, due, from+to, overdue; optional limit
+//                                 (q is a ranked word, prefix and fuzzy name search, 20 results by default)
+//                                 (no filter streams every task in priority order)
+//   POST   /tasks                 id, name, deadline, status, priority, assignedTo?, reminder?
+//                                 (201 for a new id, 200 when it replaced the task with that id)
+//   GET    /tasks/{id}
+//   PUT    /tasks/{id}            name, deadline, status, priority
+//   DELETE /tasks/{id}
+//   POST   /tasks/{id}/complete
+//   POST   /tasks/{id}/assign     username
+//   POST   /tasks/{id}/reminder   reminder
+//   GET    /query                 any of status, notStatus, assignee (comma-separated; "-" is unassigned),
+//                                 minPriority, maxPriority, from, to, reminder=true|false; optional limit,
+//                                 or count for {"count": n} only
+//   POST   /batch                 text/csv body, one change per row (see TaskBatch); applied all-or-nothing,
+//                                 200 with per-row outcomes, or 409 with them if the batch was rolled back
+//   GET    /events                from (sequence, default: the next event), limit, wait (ms to long-poll for the
+//                                 first event); returns {"next": ..., "events": [...]}, or 410 when the events
+//                                 from that sequence were overwritten and the client must reload
+//   GET    /analytics
+//   GET    /metrics               operation latencies and store gauges, Prometheus text format
+class TaskServer implements Closeable {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int MAX_BATCH_BYTES = 16 << 20;
+    private static final int PAGE_SIZE = 1000;
+    private static final long MAX_EVENT_WAIT_MILLIS = 30_000;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final TaskManager manager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private TaskServer(TaskManager manager, HttpServer server, ExecutorService executor) {
+        this.manager = manager;
+        this.server = server;
+        this.executor = executor;
+    }
+
+    public static TaskServer start(final TaskManager manager, final InetSocketAddress address) throws IOException {
+        // Headers and body go out as separate writes; with Nagle's algorithm on, the body then
+        // waits for the client's delayed ACK and every keep-alive request takes about 40 ms.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        HttpServer server = HttpServer.create(address, 1024);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        TaskServer taskServer = new TaskServer(manager, server, executor);
+        server.createContext("/", taskServer::handle);
+        server.setExecutor(executor);
+        server.start();
+        return taskServer;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    // Thrown by handlers to answer with an error status and message.
+    private static final class HttpError extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            String[] path = segments(exchange.getRequestURI().getRawPath());
+            String method = exchange.getRequestMethod();
+            Map<String, String> params = params(exchange);
+            if (path.length == 1 && path[0].equals("users")) {
+                requireMethod(method, "POST");
+                register(exchange, params);
+            } else if (path.length == 1 && path[0].equals("sessions")) {
+                if (method.equals("DELETE")) {
+                    manager.getUserManager().closeSession(token(exchange));
+                    sendEmpty(exchange, 204);
+                } else {
+                    requireMethod(method, "POST");
+                    login(exchange, params);
+                }
+            } else if (path.length >= 1 && path[0].equals("tasks")) {
+                User user = authenticate(exchange);
+                routeTask(exchange, method, path, params, user);
+            } else if (path.length == 1 && path[0].equals("query")) {
+                authenticate(exchange);
+                requireMethod(method, "GET");
+                query(exchange, params);
+            } else if (path.length == 1 && path[0].equals("batch")) {
+                authenticate(exchange);
+                requireMethod(method, "POST");
+                applyBatch(exchange);
+            } else if (path.length == 1 && path[0].equals("events")) {
+                authenticate(exchange);
+                requireMethod(method, "GET");
+                sendEvents(exchange, params);
+            } else if (path.length == 1 && path[0].equals("analytics")) {
+                authenticate(exchange);
+                requireMethod(method, "GET");
+                sendAnalytics(exchange);
+            } else if (path.length == 1 && path[0].equals("metrics")) {
+                authenticate(exchange);
+                requireMethod(method, "GET");
+                sendText(exchange, manager.getMetrics().dump());
+            } else {
+                throw new HttpError(404, "No such resource.");
+            }
+        } catch (HttpError e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            sendError(exchange, 500, "Internal error: " + e);
+        }
+        // Not reached when sendError aborts a started response or the client went away; the
+        // server then drops the connection instead of ending the response cleanly.
+        exchange.close();
+    }
+
+    private void routeTask(final HttpExchange exchange, final String method, final String[] path,
+                           final Map<String, String> params, final User user) throws IOException, HttpError {
+        if (path.length == 1) {
+            if (method.equals("POST")) {
+                Task task = taskFrom(required(params, "id"), params);
+                Task replaced = manager.addTask(task);
+                sendTask(exchange, replaced == null ? 201 : 200, task);
+            } else {
+                requireMethod(method, "GET");
+                listTasks(exchange, params, user);
+            }
+            return;
+        }
+        String id = path[1];
+        Task updated;
+        if (path.length == 2) {
+            switch (method) {
+                case "GET":
+                    updated = manager.getTask(id);
+                    break;
+                case "PUT":
+                    Task replacement = taskFrom(id, params);
+                    updated = manager.updateTask(id, current -> current.toBuilder()
+                            .name(replacement.getName())
+                            .deadline(replacement.getDeadline())
+                            .status(replacement.getStatus())
+                            .priority(replacement.getPriority())
+                            .build());
+                    break;
+                case "DELETE":
+                    updated = manager.deleteTask(id);
+                    if (updated != null) {
+                        sendEmpty(exchange, 204);
+                        return;
+                    }
+                    break;
+                default:
+                    throw new HttpError(405, "Method " + method + " not allowed.");
+            }
+        } else if (path.length == 3) {
+            requireMethod(method, "POST");
+            switch (path[2]) {
+                case "complete":
+                    updated = manager.updateTask(id, current -> current.withStatus(TaskManager.COMPLETED));
+                    break;
+                case "assign":
+                    String username = required(params, "username");
+                    updated = manager.updateTask(id, current -> current.withAssignedTo(username));
+                    break;
+                case "reminder":
+                    String reminder = params.get("reminder");
+                    updated = manager.updateTask(id, current -> current.withReminder(reminder));
+                    break;
+                default:
+                    throw new HttpError(404, "No such resource.");
+            }
+        } else {
+            throw new HttpError(404, "No such resource.");
+        }
+        if (updated == null) {
+            throw new HttpError(404, TaskManager.TASK_NOT_FOUND);
+        }
+        sendTask(exchange, 200, updated);
+    }
+
+    private void register(final HttpExchange exchange, final Map<String, String> params) throws IOException, HttpError {
+        String username = required(params, "username");
+        if (!manager.getUserManager().registerUser(username, required(params, "password"))) {
+            throw new HttpError(409, "User already exists.");
+        }
+        send(exchange, 201, json -> json.beginObject().field("username", username).endObject());
+    }
+
+    private void login(final HttpExchange exchange, final Map<String, String> params) throws IOException, HttpError {
+        String token = manager.getUserManager().openSession(required(params, "username"), required(params, "password"))
+                .orElseThrow(() -> new HttpError(401, "Invalid username or password."));
+        send(exchange, 201, json -> json.beginObject().field("token", token).endObject());
+    }
+
+    private User authenticate(final HttpExchange exchange) throws HttpError {
+        return manager.getUserManager().getSessionUser(token(exchange))
+                .orElseThrow(() -> new HttpError(401, "Log in with POST /sessions and send the token as a Bearer token."));
+    }
+
+    private static String token(final HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
+        }
+        return header.substring("Bearer ".length()).trim();
+    }
+
+    private void listTasks(final HttpExchange exchange, final Map<String, String> params, final User user) throws IOException, HttpError {
+        int limit = parseLimit(params, Integer.MAX_VALUE);
+        List<Task> tasks;
+        if (params.containsKey("name")) {
+            tasks = manager.findTasksByName(params.get("name"));
+        } else if (params.containsKey("q")) {
+            tasks = manager.searchTasks(params.get("q"), params.containsKey("limit") ? limit : TaskManager.SEARCH_RESULT_LIMIT);
+        } else if (params.containsKey("status")) {
+            tasks = manager.findTasksByStatus(params.get("status"));
+        } else if (params.containsKey("assignee")) {
+            tasks = manager.findTasksAssignedTo(params.get("assignee"));
+        } else if (params.containsKey("mine")) {
+            tasks = manager.findTasksAssignedTo(user.getUsername());
+        } else if (params.containsKey("due")) {
+            tasks = manager.findTasksByDate(parseDate(params.get("due")).toString());
+        } else if (params.containsKey("from") || params.containsKey("to")) {
+            tasks = manager.findTasksDueBetween(parseDate(required(params, "from")), parseDate(required(params, "to")));
+        } else if (params.containsKey("overdue")) {
+            tasks = manager.findOverdueTasks(LocalDate.now());
+        } else {
+            streamAllTasks(exchange, limit);
+            return;
+        }
+        List<Task> selected = tasks.size() > limit ? tasks.subList(0, limit) : tasks;
+        stream(exchange, json -> {
+            json.beginArray();
+            for (Task task : selected) {
+                writeTask(json, task);
+            }
+            json.endArray();
+        });
+    }
+
+    private void query(final HttpExchange exchange, final Map<String, String> params) throws IOException, HttpError {
+        TaskFilter filter = new TaskFilter();
+        if (params.containsKey("status")) {
+            filter.status(params.get("status").split(","));
+        }
+        if (params.containsKey("notStatus")) {
+            filter.notStatus(params.get("notStatus").split(","));
+        }
+        if (params.containsKey("assignee")) {
+            for (String assignee : params.get("assignee").split(",")) {
+                if (assignee.equals("-")) {
+                    filter.unassigned();
+                } else {
+                    filter.assignedTo(assignee);
+                }
+            }
+        }
+        if (params.containsKey("minPriority") || params.containsKey("maxPriority")) {
+            filter.priorityBetween(
+                    params.containsKey("minPriority") ? parseInt(params.get("minPriority"), "minPriority") : Integer.MIN_VALUE,
+                    params.containsKey("maxPriority") ? parseInt(params.get("maxPriority"), "maxPriority") : Integer.MAX_VALUE);
+        }
+        if (params.containsKey("from") || params.containsKey("to")) {
+            filter.dueBetween(params.containsKey("from") ? parseDate(params.get("from")) : null,
+                    params.containsKey("to") ? parseDate(params.get("to")) : null);
+        }
+        if (params.containsKey("reminder")) {
+            filter.hasReminder(Boolean.parseBoolean(params.get("reminder")));
+        }
+        if (params.containsKey("count")) {
+            long count = manager.countTasks(filter);
+            send(exchange, 200, json -> json.beginObject().field("count", count).endObject());
+            return;
+        }
+        List<Task> tasks = manager.findTasks(filter);
+        int limit = parseLimit(params, Integer.MAX_VALUE);
+        List<Task> selected = tasks.size() > limit ? tasks.subList(0, limit) : tasks;
+        stream(exchange, json -> {
+            json.beginArray();
+            for (Task task : selected) {
+                writeTask(json, task);
+            }
+            json.endArray();
+        });
+    }
+
+    private void applyBatch(final HttpExchange exchange) throws IOException, HttpError {
+        byte[] bytes = exchange.getRequestBody().readNBytes(MAX_BATCH_BYTES + 1);
+        if (bytes.length > MAX_BATCH_BYTES) {
+            throw new HttpError(413, "Batch larger than " + (MAX_BATCH_BYTES >> 20) + " MB; split it.");
+        }
+        TaskBatch batch = TaskBatch.read(new StringReader(new String(bytes, StandardCharsets.UTF_8)));
+        TaskBatch.Result result = manager.applyBatch(batch);
+        send(exchange, result.isCommitted() ? 200 : 409, json -> {
+            json.beginObject()
+                    .name("committed").value(result.isCommitted())
+                    .field("reason", result.getReason())
+                    .field("applied", result.count(TaskBatch.Outcome.APPLIED))
+                    .name("results").beginArray();
+            for (int i = 0; i < result.size(); i++) {
+                json.beginObject()
+                        .field("op", batch.get(i).getKind().name().toLowerCase(Locale.ROOT))
+                        .field("id", batch.get(i).getTaskId())
+                        .field("outcome", result.outcome(i).name())
+                        .endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    private void sendEvents(final HttpExchange exchange, final Map<String, String> params) throws IOException, HttpError {
+        TaskChangeFeed feed = manager.changeFeed();
+        long from = params.containsKey("from") ? parseLong(params.get("from"), "from") : feed.lastSequence() + 1;
+        int limit = parseLimit(params, PAGE_SIZE);
+        long wait = params.containsKey("wait") ? Math.min(parseLong(params.get("wait"), "wait"), MAX_EVENT_WAIT_MILLIS) : 0;
+        final List<TaskChangeFeed.Event> events;
+        try {
+            if (wait > 0) {
+                feed.await(from, wait, TimeUnit.MILLISECONDS);
+            }
+            events = feed.read(from, Math.min(Math.max(limit, 1), PAGE_SIZE));
+        } catch (TaskChangeFeed.MissedEventsException e) {
+            throw new HttpError(410, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpError(503, "Interrupted.");
+        }
+        long next = events.isEmpty() ? Math.max(from, 1) : events.get(events.size() - 1).getSequence() + 1;
+        send(exchange, 200, json -> {
+            json.beginObject().field("next", next).name("events").beginArray();
+            for (TaskChangeFeed.Event event : events) {
+                json.beginObject()
+                        .field("seq", event.getSequence())
+                        .field("kind", event.getKind().name())
+                        .field("id", event.getTaskId());
+                if (event.getTask() != null) {
+                    json.name("task");
+                    writeTask(json, event.getTask());
+                }
+                json.endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+
+    // Pages through the priority index, so the response starts at once and memory stays bounded.
+    private void streamAllTasks(final HttpExchange exchange, final int limit) throws IOException {
+        stream(exchange, json -> {
+            json.beginArray();
+            int written = 0;
+            List<Task> page = manager.tasksByPriorityPage(null, Math.min(PAGE_SIZE, limit));
+            while (!page.isEmpty()) {
+                for (Task task : page) {
+                    writeTask(json, task);
+                }
+                written += page.size();
+                if (written >= limit) {
+                    break;
+                }
+                page = manager.tasksByPriorityPage(page.get(page.size() - 1), Math.min(PAGE_SIZE, limit - written));
+            }
+            json.endArray();
+        });
+    }
+
+    private void sendAnalytics(final HttpExchange exchange) throws IOException {
+        TaskStatistics stats = manager.getStatistics();
+        send(exchange, 200, json -> {
+            json.beginObject()
+                    .field("total", stats.getTotal())
+                    .field("completed", stats.getCompleted())
+                    .field("completionRate", stats.completionRate())
+                    .field("overdue", stats.overdueCount(LocalDate.now()));
+            json.name("byStatus").beginObject();
+            for (Map.Entry<String, Long> entry : stats.statusCounts().entrySet()) {
+                json.field(String.valueOf(entry.getKey()), entry.getValue());
+            }
+            json.endObject().name("byPriority").beginObject();
+            for (Map.Entry<Integer, Long> entry : stats.priorityCounts().entrySet()) {
+                json.field(entry.getKey().toString(), entry.getValue());
+            }
+            json.endObject().name("byAssignee").beginObject();
+            Map<String, Double> rates = stats.completionRateByAssignee();
+            for (Map.Entry<String, Long> entry : stats.assigneeCounts().entrySet()) {
+                json.name(entry.getKey()).beginObject()
+                        .field("tasks", entry.getValue())
+                        .field("completionRate", rates.get(entry.getKey()))
+                        .endObject();
+            }
+            json.endObject().name("byDeadlineWeek").beginObject();
+            for (Map.Entry<LocalDate, Long> entry : stats.weeklyDeadlineHistogram().entrySet()) {
+                json.field(entry.getKey().toString(), entry.getValue());
+            }
+            json.endObject().endObject();
+        });
+    }
+
+    static void writeTask(final JsonWriter json, final Task task) throws IOException {
+        json.beginObject()
+                .field("id", task.getId())
+                .field("name", task.getName())
+                .field("deadline", task.getDeadline())
+                .field("status", task.getStatus())
+                .field("priority", task.getPriority())
+                .field("assignedTo", task.getAssignedTo())
+                .field("reminder", task.getReminder())
+                .endObject();
+    }
+
+    private static Task taskFrom(final String id, final Map<String, String> params) {
+        String deadline = params.get("deadline");
+        if (deadline != null && !deadline.isEmpty()) {
+            parseDate(deadline);
+        }
+        return Task.builder(id)
+                .name(params.get("name"))
+                .deadline(deadline == null || deadline.isEmpty() ? null : deadline)
+                .status(params.get("status"))
+                .priority(params.containsKey("priority") ? parseInt(params.get("priority"), "priority") : 0)
+                .assignedTo(params.get("assignedTo"))
+                .reminder(params.get("reminder"))
+                .build();
+    }
+
+    private static LocalDate parseDate(final String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(TaskManager.INVALID_DATE);
+        }
+    }
+
+    private static int parseInt(final String value, final String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be an integer.");
+        }
+    }
+
+    // A missing limit means the given default; a negative one is rejected with 400.
+    private static int parseLimit(final Map<String, String> params, final int byDefault) {
+        if (!params.containsKey("limit")) {
+            return byDefault;
+        }
+        int limit = parseInt(params.get("limit"), "limit");
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative.");
+        }
+        return limit;
+    }
+
+    private static long parseLong(final String value, final String name) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be an integer.");
+        }
+    }
+
+    private static String required(final Map<String, String> params, final String name) {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter '" + name + "'.");
+        }
+        return value;
+    }
+
+    private static void requireMethod(final String method, final String expected) throws HttpError {
+        if (!method.equals(expected)) {
+            throw new HttpError(405, "Method " + method + " not allowed.");
+        }
+    }
+
+    private static String[] segments(final String rawPath) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : rawPath.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(URLDecoder.decode(segment.replace("+", "%2B"), StandardCharsets.UTF_8));
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    // Query-string parameters, plus form-encoded body parameters which take precedence.
+    private static Map<String, String> params(final HttpExchange exchange) throws IOException, HttpError {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            InputStream body = exchange.getRequestBody();
+            byte[] bytes = body.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new HttpError(413, "Request body too large.");
+            }
+            parseForm(new String(bytes, StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseForm(final String form, final Map<String, String> params) {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        for (String pair : form.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    private interface JsonBody {
+        void write(JsonWriter json) throws IOException;
+    }
+
+    private static void sendTask(final HttpExchange exchange, final int status, final Task task) throws IOException {
+        send(exchange, status, json -> writeTask(json, task));
+    }
+
+    // Once a streamed response has sent its 200 the error can no longer be reported, so this throws
+    // instead, leaving the client with a truncated body rather than a short one that looks complete.
+    private static void sendError(final HttpExchange exchange, final int status, final String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            throw new IOException("Aborting response after " + exchange.getResponseCode() + " was sent: " + message);
+        }
+        send(exchange, status, json -> json.beginObject().field("error", message).endObject());
+    }
+
+    private static void sendEmpty(final HttpExchange exchange, final int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static void sendText(final HttpExchange exchange, final String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    // Small bodies are buffered so the response carries a Content-Length.
+    private static void send(final HttpExchange exchange, final int status, final JsonBody body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (JsonWriter json = new JsonWriter(bytes, 512)) {
+            body.write(json);
+        }
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.size());
+        bytes.writeTo(exchange.getResponseBody());
+    }
+
+    // Lists are written with chunked encoding as they are produced. The body is only ended when it
+    // was written in full; a failure leaves it open for handle() to abort.
+    private static void stream(final HttpExchange exchange, final JsonBody body) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", JSON);
+        exchange.sendResponseHeaders(200, 0);
+        JsonWriter json = new JsonWriter(exchange.getResponseBody(), 16 * 1024);
+        body.write(json);
+        json.close();
+    }
+}
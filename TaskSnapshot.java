@@ -0,0 +1,361 @@
+package taskmanager;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+
+// TaskSnapshot Class
+// Versioned binary snapshot of tasks, written in one streaming pass and loaded through a
+// memory-mapped file. Layout:
+//   header      int magic, int version
+//   records     per task: id, name, deadline, status code, priority, assignee code, reminder
+//   dictionary  status strings, then assignee strings, in code order
+//   footer      long dictionary offset, long task count, int magic
+// Integers are varints (priority zigzag-encoded); strings are varint length + 1 (0 = null) and UTF-8.
+// Deadlines are stored as a zigzag epoch-day, or as raw text when they are not yyyy-MM-dd.
+// Status and assignee are codes into the dictionary (0 = null), so "Completed" is stored once.
+// A snapshot is written to a sibling .tmp file and renamed over the target once it is complete and
+// forced, so a failed or interrupted write leaves the previous snapshot intact.
+final class TaskSnapshot {
+    static final int MAGIC = 0x50445354;
+    static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int FOOTER_BYTES = 20;
+    private static final int DEADLINE_NULL = 0;
+    private static final int DEADLINE_EPOCH_DAY = 1;
+    private static final int DEADLINE_RAW = 2;
+    private static final int BUFFER_BYTES = 1 << 20;
+    // Mapped windows are at most this large, so files beyond 2 GiB can still be loaded.
+    private static final long MAX_WINDOW_BYTES = 1L << 30;
+
+    private TaskSnapshot() {
+    }
+
+    public static long write(final Path file, final Iterable<Task> tasks) throws IOException {
+        try (SnapshotWriter writer = new SnapshotWriter(file)) {
+            for (Task task : tasks) {
+                writer.write(task);
+            }
+            return writer.finish();
+        }
+    }
+
+    // Streams every task in the snapshot to the sink; returns the number of tasks read.
+    public static long read(final Path file, final Consumer<Task> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + FOOTER_BYTES) {
+                throw new IOException("Not a task snapshot: " + file);
+            }
+            MappedByteBuffer edges = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (edges.getInt() != MAGIC) {
+                throw new IOException("Not a task snapshot: " + file);
+            }
+            int version = edges.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported task snapshot version " + version);
+            }
+            MappedByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, size - FOOTER_BYTES, FOOTER_BYTES);
+            long dictionaryOffset = footer.getLong();
+            long count = footer.getLong();
+            if (footer.getInt() != MAGIC || dictionaryOffset < HEADER_BYTES || dictionaryOffset > size - FOOTER_BYTES) {
+                throw new IOException("Truncated task snapshot: " + file);
+            }
+
+            SnapshotReader dictionary = new SnapshotReader(channel, dictionaryOffset, size - FOOTER_BYTES);
+            String[] statuses = dictionary.readDictionary();
+            String[] assignees = dictionary.readDictionary();
+
+            SnapshotReader records = new SnapshotReader(channel, HEADER_BYTES, dictionaryOffset);
+            for (long i = 0; i < count; i++) {
+                String id = records.readString();
+                String name = records.readString();
+                String deadline;
+                int deadlineKind = records.readVarint();
+                if (deadlineKind == DEADLINE_EPOCH_DAY) {
+                    deadline = records.readEpochDay();
+                } else if (deadlineKind == DEADLINE_RAW) {
+                    deadline = records.readString();
+                } else {
+                    deadline = null;
+                }
+                String status = lookup(statuses, records.readVarint());
+                int priority = zigzagDecode(records.readVarint());
+                String assignedTo = lookup(assignees, records.readVarint());
+                String reminder = records.readString();
+                sink.accept(Task.builder(id).name(name).deadline(deadline).status(status).priority(priority)
+                        .assignedTo(assignedTo).reminder(reminder).build());
+            }
+            return count;
+        }
+    }
+
+    // Converts a CSV export into a snapshot in one streaming pass; rejected rows are skipped.
+    public static long fromCsv(final Path csv, final Path snapshot) throws IOException {
+        TaskCsvCodec codec = new TaskCsvCodec();
+        String[] header = codec.header();
+        try (CsvReader reader = new CsvReader(
+                new InputStreamReader(Files.newInputStream(csv), StandardCharsets.UTF_8), CustomHashMap.CSV_BUFFER_SIZE);
+             SnapshotWriter writer = new SnapshotWriter(snapshot)) {
+            boolean first = true;
+            while (reader.next()) {
+                if (first) {
+                    first = false;
+                    if (reader.fieldCount() == header.length && header[0].equals(reader.field(0))) {
+                        continue;
+                    }
+                }
+                try {
+                    writer.write(codec.decode(reader));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Rejected line " + reader.lineNumber() + ": " + e.getMessage());
+                }
+            }
+            return writer.finish();
+        }
+    }
+
+    public static long toCsv(final Path snapshot, final Path csv) throws IOException {
+        TaskCsvCodec codec = new TaskCsvCodec();
+        try (CsvWriter writer = new CsvWriter(new BufferedWriter(
+                new OutputStreamWriter(Files.newOutputStream(csv), StandardCharsets.UTF_8), CustomHashMap.CSV_BUFFER_SIZE))) {
+            writer.writeRecord(codec.header());
+            return read(snapshot, task -> {
+                try {
+                    codec.encode(task, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String lookup(final String[] dictionary, final int code) throws IOException {
+        if (code == 0) {
+            return null;
+        }
+        if (code > dictionary.length) {
+            throw new IOException("Dictionary code " + code + " out of range");
+        }
+        return dictionary[code - 1];
+    }
+
+    private static int zigzagEncode(final int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int zigzagDecode(final int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // TaskSnapshot.SnapshotWriter Class
+    private static final class SnapshotWriter implements Closeable {
+        private final Path target;
+        private final Path tmp;
+        private final FileChannel channel;
+        private ByteBuffer buffer;
+        private final Map<String, Integer> statusCodes;
+        private final Map<String, Integer> assigneeCodes;
+        private long count;
+        private boolean finished;
+
+        SnapshotWriter(Path file) throws IOException {
+            target = file;
+            tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            buffer = ByteBuffer.allocate(BUFFER_BYTES);
+            statusCodes = new LinkedHashMap<>();
+            assigneeCodes = new LinkedHashMap<>();
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+        }
+
+        void write(final Task task) throws IOException {
+            writeString(task.getId());
+            writeString(task.getName());
+            long epochDay = DeadlineIndex.epochDayOf(task.getDeadline());
+            if (task.getDeadline() == null) {
+                writeVarint(DEADLINE_NULL);
+            } else if (epochDay == DeadlineIndex.MALFORMED) {
+                writeVarint(DEADLINE_RAW);
+                writeString(task.getDeadline());
+            } else {
+                writeVarint(DEADLINE_EPOCH_DAY);
+                writeVarint(zigzagEncode((int) epochDay));
+            }
+            writeVarint(code(statusCodes, task.getStatus()));
+            writeVarint(zigzagEncode(task.getPriority()));
+            writeVarint(code(assigneeCodes, task.getAssignedTo()));
+            writeString(task.getReminder());
+            count++;
+        }
+
+        long finish() throws IOException {
+            drain();
+            long dictionaryOffset = channel.position();
+            writeDictionary(statusCodes.keySet());
+            writeDictionary(assigneeCodes.keySet());
+            ensure(FOOTER_BYTES);
+            buffer.putLong(dictionaryOffset);
+            buffer.putLong(count);
+            buffer.putInt(MAGIC);
+            drain();
+            channel.force(true);
+            finished = true;
+            return count;
+        }
+
+        // Publishes the finished snapshot; an unfinished one is discarded and the target left alone.
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            if (!finished) {
+                Files.deleteIfExists(tmp);
+                throw new IOException("Task snapshot was not completed");
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        private static int code(final Map<String, Integer> dictionary, final String value) {
+            if (value == null) {
+                return 0;
+            }
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = dictionary.size() + 1;
+                dictionary.put(value, code);
+            }
+            return code;
+        }
+
+        private void writeDictionary(final Collection<String> values) throws IOException {
+            writeVarint(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        private void writeString(final String value) throws IOException {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length + 1);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void writeVarint(int value) throws IOException {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        private void ensure(final int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            drain();
+            if (buffer.remaining() < bytes) {
+                buffer = ByteBuffer.allocate(bytes);
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    // TaskSnapshot.SnapshotReader Class
+    // Sequential decoder over a byte range of the file, mapped in windows of up to 1 GiB.
+    private static final class SnapshotReader {
+        private final FileChannel channel;
+        private final long end;
+        private long windowStart;
+        private MappedByteBuffer window;
+        private byte[] scratch;
+        // Deadlines repeat heavily, so each distinct day is formatted once and its String shared.
+        private final Map<Integer, String> days;
+
+        SnapshotReader(FileChannel channel, long start, long end) throws IOException {
+            this.channel = channel;
+            this.end = end;
+            this.scratch = new byte[256];
+            this.days = new HashMap<>();
+            map(start, 0);
+        }
+
+        String[] readDictionary() throws IOException {
+            String[] values = new String[readVarint()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readString();
+            }
+            return values;
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                ensure(1);
+                byte b = window.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint in task snapshot");
+        }
+
+        String readString() throws IOException {
+            int length = readVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            ensure(length);
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            window.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        String readEpochDay() throws IOException {
+            return days.computeIfAbsent(zigzagDecode(readVarint()), day -> LocalDate.ofEpochDay(day).toString());
+        }
+
+        private void ensure(final int bytes) throws IOException {
+            if (window.remaining() >= bytes) {
+                return;
+            }
+            long position = windowStart + window.position();
+            if (position + bytes > end) {
+                throw new IOException("Truncated task snapshot");
+            }
+            map(position, bytes);
+        }
+
+        private void map(final long position, final int atLeast) throws IOException {
+            long length = Math.min(end - position, Math.max(MAX_WINDOW_BYTES, atLeast));
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+    }
+}
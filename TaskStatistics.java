@@ -0,0 +1,229 @@
+package taskmanager;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// TaskStatistics Class
+// Aggregate counts over the task store, kept up to date by TaskIndex on every mutation so that
+// analytics never have to scan the tasks. Counts live in long[1] cells to avoid re-boxing a Long
+// on each change. compute() rebuilds the same counts from scratch in one parallel pass, which is
+// how the incremental counts are verified.
+class TaskStatistics {
+    private static final int TOTAL = 0;
+    private static final int COMPLETED = 1;
+
+    private long total;
+    private long completed;
+    // Tasks whose deadline is missing or not yyyy-MM-dd; they are left out of the day counts.
+    private long undated;
+    private final Map<String, long[]> byStatus;
+    private final SortedMap<Integer, long[]> byPriority;
+    // Per assignee: {total, completed}.
+    private final SortedMap<String, long[]> byAssignee;
+    private final NavigableMap<Long, long[]> byDay;
+    private final NavigableMap<Long, long[]> openByDay;
+
+    public TaskStatistics() {
+        byStatus = new HashMap<>();
+        byPriority = new TreeMap<>();
+        byAssignee = new TreeMap<>();
+        byDay = new TreeMap<>();
+        openByDay = new TreeMap<>();
+    }
+
+    public static TaskStatistics compute(final Collection<Task> tasks) {
+        return tasks.parallelStream().collect(TaskStatistics::new, TaskStatistics::taskAdded, TaskStatistics::merge);
+    }
+
+    public void taskAdded(final Task task) {
+        apply(task, 1);
+    }
+
+    public void taskRemoved(final Task task) {
+        apply(task, -1);
+    }
+
+    public void taskUpdated(final Task previous, final Task updated) {
+        apply(previous, -1);
+        apply(updated, 1);
+    }
+
+    public void clear() {
+        total = 0;
+        completed = 0;
+        undated = 0;
+        byStatus.clear();
+        byPriority.clear();
+        byAssignee.clear();
+        byDay.clear();
+        openByDay.clear();
+    }
+
+    private void apply(final Task task, final int delta) {
+        boolean done = isCompleted(task);
+        total += delta;
+        if (done) {
+            completed += delta;
+        }
+        adjust(byStatus, task.getStatus(), TOTAL, delta);
+        adjust(byPriority, task.getPriority(), TOTAL, delta);
+        if (task.getAssignedTo() != null) {
+            long[] counts = byAssignee.computeIfAbsent(task.getAssignedTo(), user -> new long[2]);
+            counts[TOTAL] += delta;
+            if (done) {
+                counts[COMPLETED] += delta;
+            }
+            if (counts[TOTAL] == 0) {
+                byAssignee.remove(task.getAssignedTo());
+            }
+        }
+        long epochDay = DeadlineIndex.epochDayOf(task.getDeadline());
+        if (epochDay == DeadlineIndex.MALFORMED) {
+            undated += delta;
+        } else {
+            adjust(byDay, epochDay, TOTAL, delta);
+            if (!done) {
+                adjust(openByDay, epochDay, TOTAL, delta);
+            }
+        }
+    }
+
+    private static <K> void adjust(final Map<K, long[]> counts, final K key, final int slot, final int delta) {
+        long[] cell = counts.computeIfAbsent(key, k -> new long[1]);
+        cell[slot] += delta;
+        if (cell[slot] == 0) {
+            counts.remove(key);
+        }
+    }
+
+    private static boolean isCompleted(final Task task) {
+        return TaskManager.COMPLETED.equalsIgnoreCase(task.getStatus());
+    }
+
+    private void merge(final TaskStatistics other) {
+        total += other.total;
+        completed += other.completed;
+        undated += other.undated;
+        mergeCounts(byStatus, other.byStatus);
+        mergeCounts(byPriority, other.byPriority);
+        mergeCounts(byAssignee, other.byAssignee);
+        mergeCounts(byDay, other.byDay);
+        mergeCounts(openByDay, other.openByDay);
+    }
+
+    private static <K> void mergeCounts(final Map<K, long[]> into, final Map<K, long[]> from) {
+        for (Map.Entry<K, long[]> entry : from.entrySet()) {
+            long[] source = entry.getValue();
+            long[] target = into.computeIfAbsent(entry.getKey(), k -> new long[source.length]);
+            for (int i = 0; i < source.length; i++) {
+                target[i] += source[i];
+            }
+        }
+    }
+
+    // An independent copy, so a caller can read it after releasing the store lock.
+    public TaskStatistics copy() {
+        TaskStatistics copy = new TaskStatistics();
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getTotal() { return total; }
+    public long getCompleted() { return completed; }
+    public long getUndated() { return undated; }
+
+    public double completionRate() {
+        return total == 0 ? 0 : (double) completed / total;
+    }
+
+    public long countByStatus(final String status) {
+        return count(byStatus.get(status));
+    }
+
+    public long countByPriority(final int priority) {
+        return count(byPriority.get(priority));
+    }
+
+    public long countAssignedTo(final String username) {
+        return count(byAssignee.get(username));
+    }
+
+    public Map<String, Long> statusCounts() {
+        return totals(byStatus);
+    }
+
+    public Map<Integer, Long> priorityCounts() {
+        return totals(byPriority);
+    }
+
+    public Map<String, Long> assigneeCounts() {
+        return totals(byAssignee);
+    }
+
+    public Map<String, Double> completionRateByAssignee() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        byAssignee.forEach((user, counts) -> rates.put(user, (double) counts[COMPLETED] / counts[TOTAL]));
+        return rates;
+    }
+
+    // Open tasks due strictly before the given day, the same set findOverdueTasks returns.
+    public long overdueCount(final LocalDate asOf) {
+        long overdue = 0;
+        for (long[] cell : openByDay.headMap(asOf.toEpochDay(), false).values()) {
+            overdue += cell[TOTAL];
+        }
+        return overdue;
+    }
+
+    // Tasks per deadline week, keyed by the Monday that starts the week.
+    public SortedMap<LocalDate, Long> weeklyDeadlineHistogram() {
+        SortedMap<LocalDate, Long> weeks = new TreeMap<>();
+        for (Map.Entry<Long, long[]> day : byDay.entrySet()) {
+            long monday = day.getKey() - Math.floorMod(day.getKey() + 3, 7);
+            weeks.merge(LocalDate.ofEpochDay(monday), day.getValue()[TOTAL], Long::sum);
+        }
+        return weeks;
+    }
+
+    private static long count(final long[] cell) {
+        return cell == null ? 0 : cell[TOTAL];
+    }
+
+    private static <K> Map<K, Long> totals(final Map<K, long[]> counts) {
+        Map<K, Long> totals = new LinkedHashMap<>();
+        counts.forEach((key, cell) -> totals.put(key, cell[TOTAL]));
+        return totals;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TaskStatistics)) {
+            return false;
+        }
+        TaskStatistics other = (TaskStatistics) o;
+        return total == other.total && completed == other.completed && undated == other.undated
+                && sameCounts(byStatus, other.byStatus) && sameCounts(byPriority, other.byPriority)
+                && sameCounts(byAssignee, other.byAssignee) && sameCounts(byDay, other.byDay)
+                && sameCounts(openByDay, other.openByDay);
+    }
+
+    private static <K> boolean sameCounts(final Map<K, long[]> a, final Map<K, long[]> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (Map.Entry<K, long[]> entry : a.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), b.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(total, completed, undated, byStatus.size(), byPriority.size(), byAssignee.size());
+    }
+}
@@ -0,0 +1,580 @@
+package taskmanager;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// WriteAheadLog Class
+// Append-only binary log of task and user mutations. Each record is
+//   [int payload length][int CRC32 of type + payload][byte type][payload]
+// A BATCH record carries the puts and removes of one TaskManager.applyBatch; its single checksum
+// means recovery replays all of them or, for a torn tail, none.
+// Appends are copied into an in-memory batch; a single flusher thread writes the batch and fsyncs
+// it, so many concurrent appenders share one fsync (group commit). In SYNC mode callers wait for
+// their batch to be durable; in ASYNC mode they return at once and lose at most the last batch.
+//
+// Files in the data directory:
+//   snapshot.log  compacted state, written as the same records
+//   journal.old   log rotated out by a checkpoint whose snapshot has not been published yet
+//   journal.log   the active log
+// Recovery replays them in that order and truncates a torn record at the tail of journal.log.
+class WriteAheadLog implements Closeable {
+    enum Durability { SYNC, ASYNC }
+
+    // Receives recovered records in log order.
+    interface Replayer {
+        void putTask(Task task);
+        void removeTask(String taskId);
+        void registerUser(User user);
+    }
+
+    static final byte PUT_TASK = 1;
+    static final byte REMOVE_TASK = 2;
+    static final byte REGISTER_USER = 3;
+    static final byte BATCH = 4;
+
+    static final String SNAPSHOT_FILE = "snapshot.log";
+    static final String OLD_LOG_FILE = "journal.old";
+    static final String LOG_FILE = "journal.log";
+    private static final String SNAPSHOT_TMP_FILE = "snapshot.tmp";
+
+    private static final int HEADER_BYTES = 8;
+    private static final int INITIAL_BATCH_BYTES = 1 << 20;
+    // ASYNC appenders wait for the flusher once this much is queued.
+    private static final int MAX_PENDING_BYTES = 64 << 20;
+
+    private final Path directory;
+    private final Durability durability;
+    private volatile FileChannel channel;
+    private final ReentrantLock lock;
+    private final Condition hasData;
+    private final Condition flushed;
+    private final CRC32 crc;
+    private ByteBuffer pending;
+    private ByteBuffer spare;
+    private long appendedSeq;
+    private long durableSeq;
+    private IOException failure;
+    private boolean closed;
+    // The flusher is writing a batch outside the lock.
+    private boolean writing;
+    // rotate() is swapping the channel; appends wait for it.
+    private boolean rotating;
+    private final Thread flusher;
+
+    private WriteAheadLog(Path directory, Durability durability) throws IOException {
+        this.directory = directory;
+        this.durability = durability;
+        this.channel = openLog(directory.resolve(LOG_FILE));
+        this.lock = new ReentrantLock();
+        this.hasData = lock.newCondition();
+        this.flushed = lock.newCondition();
+        this.crc = new CRC32();
+        this.pending = ByteBuffer.allocate(INITIAL_BATCH_BYTES);
+        this.spare = ByteBuffer.allocate(INITIAL_BATCH_BYTES);
+        this.flusher = new Thread(this::flushLoop, "wal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    public static WriteAheadLog open(final Path directory, final Durability durability) throws IOException {
+        Files.createDirectories(directory);
+        WriteAheadLog log = new WriteAheadLog(directory, durability);
+        log.flusher.start();
+        return log;
+    }
+
+    public Durability getDurability() {
+        return durability;
+    }
+
+    public boolean needsCompaction() {
+        return Files.exists(directory.resolve(OLD_LOG_FILE));
+    }
+
+    public long appendPutTask(final Task task) {
+        byte[][] fields = taskFields(task);
+        lock.lock();
+        try {
+            pending = encode(reserve(), crc, PUT_TASK, task.getPriority(), fields);
+            return appended();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long appendRemoveTask(final String taskId) {
+        byte[][] fields = {utf8(taskId)};
+        lock.lock();
+        try {
+            pending = encode(reserve(), crc, REMOVE_TASK, 0, fields);
+            return appended();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Throws IllegalArgumentException, before anything is queued, if the batch would not fit in one record.
+    public long appendBatch(final Collection<Task> puts, final Collection<String> removes) {
+        List<byte[][]> fields = new ArrayList<>(puts.size() + removes.size());
+        long payload = 1 + 2 * Integer.BYTES;
+        for (Task task : puts) {
+            byte[][] taskFields = taskFields(task);
+            fields.add(taskFields);
+            payload += Integer.BYTES + fieldBytes(taskFields);
+        }
+        for (String taskId : removes) {
+            byte[][] idField = {utf8(taskId)};
+            fields.add(idField);
+            payload += fieldBytes(idField);
+        }
+        if (payload > MAX_PENDING_BYTES) {
+            throw new IllegalArgumentException("Batch needs " + (payload >> 20) + " MB of log, more than one record can hold ("
+                    + (MAX_PENDING_BYTES >> 20) + " MB).");
+        }
+        lock.lock();
+        try {
+            pending = encodeBatch(reserve(), crc, (int) payload, puts, removes.size(), fields);
+            return appended();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long appendRegisterUser(final User user) {
+        byte[][] fields = userFields(user);
+        lock.lock();
+        try {
+            pending = encode(reserve(), crc, REGISTER_USER, 0, fields);
+            return appended();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Sequence number of the most recent append; pass it to awaitDurable.
+    public long lastAppended() {
+        lock.lock();
+        try {
+            return appendedSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Blocks until every record up to seq has been fsynced. A no-op in ASYNC mode.
+    public void awaitDurable(final long seq) {
+        if (durability == Durability.SYNC) {
+            waitFor(seq);
+        }
+    }
+
+    public void flush() {
+        waitFor(lastAppended());
+    }
+
+    // Checkpoint step 1, called while TaskManager blocks task mutations: makes everything durable and
+    // moves the active log aside as journal.old, so a snapshot taken now supersedes exactly that file.
+    // Appends that do not go through TaskManager's lock, such as user registrations, wait until the
+    // new log is open, and the flusher is idle while the channel is swapped.
+    public void rotate() throws IOException {
+        lock.lock();
+        try {
+            rotating = true;
+            hasData.signalAll();
+            while ((writing || pending.position() > 0) && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            channel.force(true);
+            channel.close();
+            Path log = directory.resolve(LOG_FILE);
+            Path old = directory.resolve(OLD_LOG_FILE);
+            if (Files.exists(old)) {
+                // An earlier checkpoint never published its snapshot; keep both logs' records.
+                try (FileChannel target = FileChannel.open(old, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                     FileChannel source = FileChannel.open(log, StandardOpenOption.READ)) {
+                    long position = 0;
+                    while (position < source.size()) {
+                        position += source.transferTo(position, source.size() - position, target);
+                    }
+                    target.force(true);
+                }
+                Files.delete(log);
+            } else {
+                Files.move(log, old, StandardCopyOption.ATOMIC_MOVE);
+            }
+            channel = openLog(log);
+        } finally {
+            rotating = false;
+            flushed.signalAll();
+            lock.unlock();
+        }
+    }
+
+    // Checkpoint step 2, safe to run concurrently with new appends: writes the compacted state,
+    // publishes it atomically and drops the rotated log it replaces.
+    public void writeSnapshot(final Collection<Task> tasks, final Collection<User> users) throws IOException {
+        Path tmp = directory.resolve(SNAPSHOT_TMP_FILE);
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BATCH_BYTES);
+            CRC32 checksum = new CRC32();
+            for (User user : users) {
+                buffer = drainIfFull(encode(buffer, checksum, REGISTER_USER, 0, userFields(user)), out);
+            }
+            for (Task task : tasks) {
+                buffer = drainIfFull(encode(buffer, checksum, PUT_TASK, task.getPriority(), taskFields(task)), out);
+            }
+            drain(buffer, out);
+            out.force(true);
+        }
+        Files.move(tmp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        Files.deleteIfExists(directory.resolve(OLD_LOG_FILE));
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            hasData.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.force(true);
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Replays snapshot.log, journal.old and journal.log. Returns the number of records applied.
+    public static long replay(final Path directory, final Replayer replayer) throws IOException {
+        long records = 0;
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            records += replayFile(snapshot, replayer, false);
+        }
+        Path old = directory.resolve(OLD_LOG_FILE);
+        if (Files.exists(old)) {
+            records += replayFile(old, replayer, true);
+        }
+        Path log = directory.resolve(LOG_FILE);
+        if (Files.exists(log)) {
+            records += replayFile(log, replayer, true);
+        }
+        return records;
+    }
+
+    private static long replayFile(final Path file, final Replayer replayer, final boolean tolerateTornTail) throws IOException {
+        long records = 0;
+        long validEnd = 0;
+        CRC32 crc = new CRC32();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4 << 20);
+            boolean corrupt = false;
+            while (!corrupt) {
+                int read = in.read(buffer);
+                buffer.flip();
+                while (buffer.remaining() >= HEADER_BYTES) {
+                    int start = buffer.position();
+                    int length = buffer.getInt(start);
+                    if (length < 1 || length > MAX_PENDING_BYTES) {
+                        corrupt = true;
+                        break;
+                    }
+                    if (buffer.remaining() < HEADER_BYTES + length) {
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(buffer.array(), buffer.arrayOffset() + start + HEADER_BYTES, length);
+                    if ((int) crc.getValue() != buffer.getInt(start + 4)) {
+                        corrupt = true;
+                        break;
+                    }
+                    buffer.position(start + HEADER_BYTES);
+                    apply(buffer, replayer);
+                    buffer.position(start + HEADER_BYTES + length);
+                    validEnd += HEADER_BYTES + length;
+                    records++;
+                }
+                if (read < 0) {
+                    break;
+                }
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    // A single record larger than the buffer.
+                    ByteBuffer grown = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    grown.put(buffer);
+                    buffer = grown;
+                }
+            }
+            if (validEnd < in.size()) {
+                // Anything after the last valid record is a torn or corrupt tail.
+                if (!tolerateTornTail) {
+                    throw new IOException("Corrupt record in " + file + " at byte " + validEnd);
+                }
+                in.truncate(validEnd);
+                in.force(true);
+            }
+        }
+        return records;
+    }
+
+    private static void apply(final ByteBuffer buffer, final Replayer replayer) throws IOException {
+        byte type = buffer.get();
+        switch (type) {
+            case PUT_TASK:
+                replayer.putTask(getTask(buffer));
+                break;
+            case REMOVE_TASK:
+                replayer.removeTask(getString(buffer));
+                break;
+            case REGISTER_USER:
+                replayer.registerUser(new User(getString(buffer), getString(buffer)));
+                break;
+            case BATCH:
+                int puts = buffer.getInt();
+                int removes = buffer.getInt();
+                for (int i = 0; i < puts; i++) {
+                    replayer.putTask(getTask(buffer));
+                }
+                for (int i = 0; i < removes; i++) {
+                    replayer.removeTask(getString(buffer));
+                }
+                break;
+            default:
+                throw new IOException("Unknown log record type " + type);
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long batchSeq;
+            lock.lock();
+            try {
+                while (pending.position() == 0 && !closed) {
+                    hasData.awaitUninterruptibly();
+                }
+                if (pending.position() == 0) {
+                    return;
+                }
+                batch = pending;
+                pending = spare;
+                spare = null;
+                batchSeq = appendedSeq;
+                writing = true;
+            } finally {
+                lock.unlock();
+            }
+            IOException error = null;
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+            batch.clear();
+            lock.lock();
+            try {
+                spare = batch;
+                writing = false;
+                if (error != null && failure == null) {
+                    failure = error;
+                }
+                durableSeq = batchSeq;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void waitFor(final long seq) {
+        lock.lock();
+        try {
+            while (durableSeq < seq && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ByteBuffer reserve() {
+        while (rotating) {
+            flushed.awaitUninterruptibly();
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+        while (pending.position() > MAX_PENDING_BYTES && flusher.isAlive()) {
+            flushed.awaitUninterruptibly();
+        }
+        return pending;
+    }
+
+    private long appended() {
+        hasData.signal();
+        return ++appendedSeq;
+    }
+
+    // Encodes one record at the buffer's position, growing the buffer if needed, and returns the
+    // buffer to keep using. PUT_TASK payloads start with the priority; all others are strings only.
+    private static ByteBuffer encode(ByteBuffer buffer, final CRC32 crc, final byte type, final int priority, final byte[][] fields) {
+        int payload = 1 + (type == PUT_TASK ? Integer.BYTES : 0);
+        for (byte[] bytes : fields) {
+            payload += Integer.BYTES + (bytes == null ? 0 : bytes.length);
+        }
+        if (buffer.remaining() < HEADER_BYTES + payload) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + HEADER_BYTES + payload));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+        int start = buffer.position();
+        buffer.putInt(payload);
+        buffer.putInt(0);
+        buffer.put(type);
+        if (type == PUT_TASK) {
+            buffer.putInt(priority);
+        }
+        putFields(buffer, fields);
+        crc.reset();
+        crc.update(buffer.array(), buffer.arrayOffset() + start + HEADER_BYTES, payload);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        return buffer;
+    }
+
+    // Payload: count of puts, count of removes, each put as a priority and the task's fields, then
+    // each removed id.
+    private static ByteBuffer encodeBatch(ByteBuffer buffer, final CRC32 crc, final int payload, final Collection<Task> puts,
+                                          final int removes, final List<byte[][]> fields) {
+        if (buffer.remaining() < HEADER_BYTES + payload) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + HEADER_BYTES + payload));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+        int start = buffer.position();
+        buffer.putInt(payload);
+        buffer.putInt(0);
+        buffer.put(BATCH);
+        buffer.putInt(puts.size());
+        buffer.putInt(removes);
+        Iterator<byte[][]> entries = fields.iterator();
+        for (Task task : puts) {
+            buffer.putInt(task.getPriority());
+            putFields(buffer, entries.next());
+        }
+        while (entries.hasNext()) {
+            putFields(buffer, entries.next());
+        }
+        crc.reset();
+        crc.update(buffer.array(), buffer.arrayOffset() + start + HEADER_BYTES, payload);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        return buffer;
+    }
+
+    private static long fieldBytes(final byte[][] fields) {
+        long bytes = 0;
+        for (byte[] field : fields) {
+            bytes += Integer.BYTES + (field == null ? 0 : field.length);
+        }
+        return bytes;
+    }
+
+    private static void putFields(final ByteBuffer buffer, final byte[][] fields) {
+        for (byte[] bytes : fields) {
+            if (bytes == null) {
+                buffer.putInt(-1);
+            } else {
+                buffer.putInt(bytes.length);
+                buffer.put(bytes);
+            }
+        }
+    }
+
+    private static ByteBuffer drainIfFull(final ByteBuffer buffer, final FileChannel out) throws IOException {
+        if (buffer.position() >= INITIAL_BATCH_BYTES) {
+            drain(buffer, out);
+        }
+        return buffer;
+    }
+
+    private static void drain(final ByteBuffer buffer, final FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static byte[][] taskFields(final Task task) {
+        return new byte[][]{
+                utf8(task.getId()), utf8(task.getName()), utf8(task.getDeadline()), utf8(task.getStatus()),
+                utf8(task.getAssignedTo()), utf8(task.getReminder())
+        };
+    }
+
+    private static byte[][] userFields(final User user) {
+        return new byte[][]{utf8(user.getUsername()), utf8(user.getPassword())};
+    }
+
+    private static FileChannel openLog(final Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static byte[] utf8(final String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // A PUT_TASK payload after its type byte: the priority, then the fields.
+    private static Task getTask(final ByteBuffer buffer) {
+        int priority = buffer.getInt();
+        String id = getString(buffer);
+        String name = getString(buffer);
+        String deadline = getString(buffer);
+        String status = getString(buffer);
+        return Task.builder(id).name(name).deadline(deadline).status(status).priority(priority)
+                .assignedTo(getString(buffer)).reminder(getString(buffer)).build();
+    }
+
+    private static String getString(final ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
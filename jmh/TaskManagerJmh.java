@@ -0,0 +1,128 @@
+package taskmanager;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// TaskManagerJmh Class
+// JMH versions of the TaskManagerBenchmark hot paths, on the same generated tasks, for results
+// with JMH's forking, warmup and dead-code protection, and its profilers. Run with the gc profiler
+// for allocation per operation and GC counts:
+//   mvn -Pjmh package
+//   java -jar target/benchmarks.jar TaskManagerJmh -prof gc
+//   java -jar target/benchmarks.jar TaskManagerJmh -p size=1000000 -jvmArgs -Xmx8g -prof gc
+// JMH needs the benchmark and state classes to be public; everything they call stays package-private.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskManagerJmh {
+    private static final int KEYS = 1 << 16;
+
+    // A populated manager plus pre-drawn random keys, so lookups do not allocate or call Random.
+    @State(Scope.Benchmark)
+    public static class Store {
+        @Param({"10000", "1000000"})
+        public int size;
+
+        CustomHashMap<String, Task> map;
+        TaskManager manager;
+        String[] ids;
+        String[] names;
+        private PrintStream console;
+
+        @Setup(Level.Trial)
+        public void populate() {
+            // TaskManager reports to the console; keep it out of JMH's output.
+            console = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            map = new ConcurrentCustomHashMap<>();
+            manager = new TaskManager(map);
+            TaskManagerBenchmark.TaskGenerator generator = new TaskManagerBenchmark.TaskGenerator(42, size);
+            for (int n = 0; n < size; n++) {
+                manager.addTask(generator.task(n));
+            }
+            Random random = new Random(7);
+            ids = new String[KEYS];
+            names = new String[KEYS];
+            for (int i = 0; i < KEYS; i++) {
+                ids[i] = TaskManagerBenchmark.TaskGenerator.id(random.nextInt(size));
+                names[i] = map.get(ids[i]).getName();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            manager.stopReminders();
+            System.setOut(console);
+        }
+    }
+
+    // Each benchmark thread walks the pre-drawn keys on its own.
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int advance() {
+            return next++ & (KEYS - 1);
+        }
+    }
+
+    @Benchmark
+    public Task taskMapGet(final Store store, final Cursor cursor) {
+        return store.map.get(store.ids[cursor.advance()]);
+    }
+
+    @Benchmark
+    public Task getTask(final Store store, final Cursor cursor) {
+        return store.manager.getTask(store.ids[cursor.advance()]);
+    }
+
+    @Benchmark
+    public List<Task> findTasksByName(final Store store, final Cursor cursor) {
+        return store.manager.findTasksByName(store.names[cursor.advance()]);
+    }
+
+    @Benchmark
+    public List<Task> findTasksByStatus(final Store store, final Cursor cursor) {
+        String[] statuses = TaskManagerBenchmark.TaskGenerator.STATUSES;
+        return store.manager.findTasksByStatus(statuses[cursor.advance() % statuses.length]);
+    }
+
+    @Benchmark
+    public List<Task> topK(final Store store) {
+        return store.manager.topK(100);
+    }
+
+    @Benchmark
+    public List<Task> tasksByPriorityPage(final Store store, final Cursor cursor) {
+        return store.manager.tasksByPriorityPage(store.map.get(store.ids[cursor.advance()]), 100);
+    }
+
+    @Benchmark
+    public TaskStatistics taskAnalytics(final Store store) {
+        return store.manager.getStatistics();
+    }
+
+    @Benchmark
+    public void editTask(final Store store, final Cursor cursor) {
+        Task task = store.map.get(store.ids[cursor.advance()]);
+        store.manager.editTask(task.getId(), task.getName(), task.getDeadline(), task.getStatus(), task.getPriority() % 5 + 1);
+    }
+
+    // The same 1000 reassignments TaskManagerBenchmark times, applied as one batch.
+    @Benchmark
+    @OperationsPerInvocation(1000)
+    public TaskBatch.Result reassign1000Batch(final Store store, final Cursor cursor) {
+        TaskBatch batch = new TaskBatch();
+        int round = cursor.next++;
+        for (int n = 0; n < 1000; n++) {
+            batch.assign(store.ids[(round * 1000 + n) & (KEYS - 1)], "user" + (round & 7));
+        }
+        return store.manager.applyBatch(batch);
+    }
+}